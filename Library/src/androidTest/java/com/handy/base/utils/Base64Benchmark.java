@@ -0,0 +1,135 @@
+package com.handy.base.utils;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Base64;
+import android.util.Log;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Base64Utils与android.util.Base64、java.util.Base64（API 26及以上）的编解码吞吐量对比，结果输出到logcat（TAG：Base64Benchmark）
+ * <p>分别测试1KB小数据的大量调用及1MB大数据，每种实现取多轮中的最短耗时。</p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class Base64Benchmark {
+    private static final String TAG = "Base64Benchmark";
+    /**
+     * 数据大小及每轮编解码次数，每轮处理的数据总量均为4MB
+     */
+    private static final int[][] CASES = {{1024, 4096}, {1024 * 1024, 4}};
+    private static final int ROUNDS = 5;
+
+    private final Random random = new Random(20180708L);
+
+    @Test
+    public void encodeDecodeThroughput() {
+        Log.i(TAG, "Base64 benchmark: API " + Build.VERSION.SDK_INT);
+        for (int[] benchmarkCase : CASES) {
+            byte[] data = new byte[benchmarkCase[0]];
+            random.nextBytes(data);
+            int count = benchmarkCase[1];
+            String encoded = Base64Utils.encode(data);
+            // 三种实现的编码结果应一致，避免比较不同的工作量
+            assertEquals(encoded, Base64.encodeToString(data, Base64.NO_WRAP));
+            assertArrayEquals(data, Base64.decode(encoded, Base64.DEFAULT));
+
+            long utilsEncodeNanos = Long.MAX_VALUE;
+            long utilsDecodeNanos = Long.MAX_VALUE;
+            long androidEncodeNanos = Long.MAX_VALUE;
+            long androidDecodeNanos = Long.MAX_VALUE;
+            // 第一轮用于预热，不计入结果
+            for (int round = 0; round <= ROUNDS; round++) {
+                long startNanos = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    Base64Utils.encode(data);
+                }
+                long utilsEncode = System.nanoTime() - startNanos;
+
+                startNanos = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    Base64Utils.decode(encoded);
+                }
+                long utilsDecode = System.nanoTime() - startNanos;
+
+                startNanos = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    Base64.encodeToString(data, Base64.NO_WRAP);
+                }
+                long androidEncode = System.nanoTime() - startNanos;
+
+                startNanos = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    Base64.decode(encoded, Base64.DEFAULT);
+                }
+                long androidDecode = System.nanoTime() - startNanos;
+
+                if (round > 0) {
+                    utilsEncodeNanos = Math.min(utilsEncodeNanos, utilsEncode);
+                    utilsDecodeNanos = Math.min(utilsDecodeNanos, utilsDecode);
+                    androidEncodeNanos = Math.min(androidEncodeNanos, androidEncode);
+                    androidDecodeNanos = Math.min(androidDecodeNanos, androidDecode);
+                }
+            }
+            long totalBytes = (long) data.length * count;
+            String result = String.format("%d bytes x %d: encode Base64Utils %.1fMB/s, android.util.Base64 %.1fMB/s; "
+                            + "decode Base64Utils %.1fMB/s, android.util.Base64 %.1fMB/s",
+                    data.length, count,
+                    throughput(totalBytes, utilsEncodeNanos), throughput(totalBytes, androidEncodeNanos),
+                    throughput(totalBytes, utilsDecodeNanos), throughput(totalBytes, androidDecodeNanos));
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                result += jdkThroughput(data, encoded, count);
+            } else {
+                result += "; java.util.Base64 requires API 26";
+            }
+            Log.i(TAG, result);
+        }
+    }
+
+    /**
+     * java.util.Base64的编解码吞吐量
+     */
+    @TargetApi(Build.VERSION_CODES.O)
+    private static String jdkThroughput(byte[] data, String encoded, int count) {
+        java.util.Base64.Encoder encoder = java.util.Base64.getEncoder();
+        java.util.Base64.Decoder decoder = java.util.Base64.getDecoder();
+        assertEquals(encoded, encoder.encodeToString(data));
+        long encodeNanos = Long.MAX_VALUE;
+        long decodeNanos = Long.MAX_VALUE;
+        for (int round = 0; round <= ROUNDS; round++) {
+            long startNanos = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                encoder.encodeToString(data);
+            }
+            long encode = System.nanoTime() - startNanos;
+
+            startNanos = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                decoder.decode(encoded);
+            }
+            long decode = System.nanoTime() - startNanos;
+
+            if (round > 0) {
+                encodeNanos = Math.min(encodeNanos, encode);
+                decodeNanos = Math.min(decodeNanos, decode);
+            }
+        }
+        long totalBytes = (long) data.length * count;
+        return String.format("; java.util.Base64 encode %.1fMB/s, decode %.1fMB/s",
+                throughput(totalBytes, encodeNanos), throughput(totalBytes, decodeNanos));
+    }
+
+    /**
+     * @return 吞吐量，单位：MB/s
+     */
+    private static double throughput(long bytes, long nanos) {
+        return bytes / (1024.0 * 1024.0) / (Math.max(1, nanos) / 1e9);
+    }
+}
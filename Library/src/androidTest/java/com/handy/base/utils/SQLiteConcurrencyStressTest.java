@@ -0,0 +1,132 @@
+package com.handy.base.utils;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.handy.base.config.SQLiteConfig;
+import com.handy.base.utils.bean.SQLTable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 多个线程同时查询、关闭游标，同时串行写线程持续写入时，任何线程的游标都不会被其他线程关闭
+ */
+@RunWith(AndroidJUnit4.class)
+public class SQLiteConcurrencyStressTest {
+    private static final String DB_NAME = "concurrency_stress.db";
+    private static final int READER_COUNT = 8;
+    private static final int ITERATIONS = 200;
+    private static final int PRELOAD_ROWS = 200;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getTargetContext();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void readersKeepOwnCursorsWhileOthersClose() throws Exception {
+        stress(new SQLiteConfig());
+    }
+
+    @Test
+    public void readersKeepOwnCursorsWhileOthersCloseInWalMode() throws Exception {
+        stress(new SQLiteConfig().setWriteAheadLogging(true));
+    }
+
+    private void stress(SQLiteConfig sqLiteConfig) throws Exception {
+        final SQLiteUtils sqLiteUtils = SQLiteUtils.getInstance(context, 1, DB_NAME, sqLiteConfig);
+        sqLiteUtils.insertSQLTable(new SQLTable("stress", "CREATE TABLE stress (id INTEGER PRIMARY KEY, name TEXT)"));
+        sqLiteUtils.acquire();
+        try {
+            ContentValues contentValues = new ContentValues();
+            for (int i = 0; i < PRELOAD_ROWS; i++) {
+                contentValues.put("name", "name" + i);
+                sqLiteUtils.insert("stress", null, contentValues);
+            }
+        } finally {
+            sqLiteUtils.release();
+        }
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(READER_COUNT);
+        for (int r = 0; r < READER_COUNT; r++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < ITERATIONS && failure.get() == null; i++) {
+                            Cursor rows = sqLiteUtils.findAll("stress", new String[]{"id", "name"});
+                            int count = 0;
+                            while (rows.moveToNext()) {
+                                assertFalse(rows.isClosed());
+                                rows.getString(1);
+                                count++;
+                                if (count % 50 == 0) {
+                                    // 让出CPU，使其他线程有机会在遍历过程中调用close()
+                                    Thread.yield();
+                                }
+                            }
+                            assertTrue(count >= PRELOAD_ROWS);
+                            assertFalse(rows.isClosed());
+                            sqLiteUtils.close();
+                            assertTrue(rows.isClosed());
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        finished.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        List<Future<?>> writes = new ArrayList<>();
+        start.countDown();
+        for (int i = 0; i < ITERATIONS; i++) {
+            final int index = PRELOAD_ROWS + i;
+            writes.add(sqLiteUtils.submitWrite(new Runnable() {
+                @Override
+                public void run() {
+                    ContentValues values = new ContentValues();
+                    values.put("name", "name" + index);
+                    sqLiteUtils.insert("stress", null, values);
+                }
+            }));
+        }
+        for (Future<?> write : writes) {
+            write.get(30, TimeUnit.SECONDS);
+        }
+        assertTrue(finished.await(60, TimeUnit.SECONDS));
+        assertNull(String.valueOf(failure.get()), failure.get());
+        assertEquals(PRELOAD_ROWS + ITERATIONS, sqLiteUtils.findLongColumn("SELECT count(*) FROM stress", null)[0]);
+        sqLiteUtils.shutdown();
+    }
+}
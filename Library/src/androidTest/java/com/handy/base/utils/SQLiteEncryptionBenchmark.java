@@ -0,0 +1,111 @@
+package com.handy.base.utils;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.handy.base.config.SQLiteConfig;
+import com.handy.base.utils.bean.SQLTable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * SQLCipher整库加密与AesUtils逐列加密的读写耗时对比，结果输出到logcat（TAG：SQLiteBenchmark）
+ */
+@RunWith(AndroidJUnit4.class)
+public class SQLiteEncryptionBenchmark {
+    private static final String TAG = "SQLiteBenchmark";
+    private static final String DB_NAME = "encryption_benchmark.db";
+    private static final String COLUMN_KEY = "0123456789ABCDEF";
+    private static final int ROW_COUNT = 10000;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getTargetContext();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void wholeDatabaseVersusPerColumn() {
+        long[] plain = writeAndRead(new SQLiteConfig(), false);
+        long[] perColumn = writeAndRead(new SQLiteConfig(), true);
+        long[] passphrase = writeAndRead(new SQLiteConfig().setEncryptionKey("benchmark passphrase".toCharArray()), false);
+        byte[] rawKey = new byte[32];
+        for (int i = 0; i < rawKey.length; i++) {
+            rawKey[i] = (byte) i;
+        }
+        long[] raw = writeAndRead(new SQLiteConfig().setEncryptionKey(rawKey), false);
+        Log.i(TAG, String.format("%d rows write/read/open: plain %d/%d/%dms, AesUtils per column %d/%d/%dms, "
+                        + "SQLCipher passphrase %d/%d/%dms, SQLCipher raw key %d/%d/%dms",
+                ROW_COUNT, plain[0], plain[1], plain[2], perColumn[0], perColumn[1], perColumn[2],
+                passphrase[0], passphrase[1], passphrase[2], raw[0], raw[1], raw[2]));
+    }
+
+    /**
+     * 批量写入后读取全部数据
+     *
+     * @param isPerColumn 是否使用AesUtils逐列加密name、remark列
+     * @return [写入耗时, 读取耗时, 首次打开耗时]，单位：毫秒
+     */
+    private long[] writeAndRead(SQLiteConfig sqLiteConfig, final boolean isPerColumn) {
+        context.deleteDatabase(DB_NAME);
+        SQLiteUtils sqLiteUtils = SQLiteUtils.getInstance(context, 1, DB_NAME, sqLiteConfig);
+        sqLiteUtils.insertSQLTable(new SQLTable("secret", "CREATE TABLE secret (id INTEGER PRIMARY KEY, name TEXT, remark TEXT)"));
+        sqLiteUtils.setKeepAlive(true);
+
+        long startMillis = System.currentTimeMillis();
+        sqLiteUtils.open();
+        long openMillis = System.currentTimeMillis() - startMillis;
+
+        List<ContentValues> rows = new ArrayList<>(ROW_COUNT);
+        startMillis = System.currentTimeMillis();
+        for (int i = 0; i < ROW_COUNT; i++) {
+            String name = "name" + i;
+            String remark = "remark of row " + i;
+            ContentValues contentValues = new ContentValues();
+            contentValues.put("name", isPerColumn ? AesUtils.encrypt(COLUMN_KEY, name) : name);
+            contentValues.put("remark", isPerColumn ? AesUtils.encrypt(COLUMN_KEY, remark) : remark);
+            rows.add(contentValues);
+        }
+        assertEquals(ROW_COUNT, sqLiteUtils.insertAll("secret", rows));
+        long writeMillis = System.currentTimeMillis() - startMillis;
+
+        startMillis = System.currentTimeMillis();
+        List<String> names = sqLiteUtils.findList("SELECT name, remark FROM secret ORDER BY id", null, new SQLiteUtils.RowMapper<String>("name", "remark") {
+            @Override
+            public String mapRow(Cursor cursor, int[] columnIndexes) {
+                String name = cursor.getString(columnIndexes[0]);
+                String remark = cursor.getString(columnIndexes[1]);
+                if (isPerColumn) {
+                    name = AesUtils.decrypt(COLUMN_KEY, name);
+                    remark = AesUtils.decrypt(COLUMN_KEY, remark);
+                }
+                return name + remark;
+            }
+        });
+        long readMillis = System.currentTimeMillis() - startMillis;
+        assertEquals(ROW_COUNT, names.size());
+        assertEquals("name0remark of row 0", names.get(0));
+
+        sqLiteUtils.shutdown();
+        return new long[]{writeMillis, readMillis, openMillis};
+    }
+}
@@ -0,0 +1,98 @@
+package com.handy.base.utils;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.handy.base.utils.bean.SQLTable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 100000条数据中LIKE模糊查询与FTS全文检索的耗时对比，结果输出到logcat（TAG：SQLiteBenchmark）
+ */
+@RunWith(AndroidJUnit4.class)
+public class SQLiteFtsBenchmark {
+    private static final String TAG = "SQLiteBenchmark";
+    private static final String DB_NAME = "fts_benchmark.db";
+    private static final int ROW_COUNT = 100000;
+    private static final int QUERY_ROUNDS = 5;
+    private static final String[] WORDS = {"apple", "banana", "cherry", "durian", "elderberry", "fig", "grape", "honeydew",
+            "kiwi", "lemon", "mango", "nectarine", "orange", "papaya", "quince", "raspberry"};
+
+    private Context context;
+    private SQLiteUtils sqLiteUtils;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        sqLiteUtils = SQLiteUtils.getInstance(context, 1, DB_NAME);
+        sqLiteUtils.insertSQLTable(new SQLTable("goods", "CREATE TABLE goods (id INTEGER PRIMARY KEY, name TEXT, remark TEXT)")
+                .setFullTextSearch("name", "remark"));
+        sqLiteUtils.setKeepAlive(true);
+        List<ContentValues> rows = new ArrayList<>(ROW_COUNT);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            ContentValues contentValues = new ContentValues();
+            contentValues.put("name", "goods " + i + " " + WORDS[i % WORDS.length]);
+            contentValues.put("remark", "batch " + (i / 1000) + " " + WORDS[(i / WORDS.length) % WORDS.length]);
+            rows.add(contentValues);
+        }
+        assertEquals(ROW_COUNT, sqLiteUtils.insertAll("goods", rows));
+    }
+
+    @After
+    public void tearDown() {
+        sqLiteUtils.shutdown();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void likeVersusFullTextSearch() {
+        long likeNanos = 0;
+        long ftsNanos = 0;
+        for (int round = 0; round < QUERY_ROUNDS; round++) {
+            for (String word : WORDS) {
+                long startNanos = System.nanoTime();
+                int likeCount = countRows(sqLiteUtils.findBySQL("SELECT * FROM goods WHERE name LIKE ?", new String[]{"%" + word + "%"}));
+                likeNanos += System.nanoTime() - startNanos;
+
+                startNanos = System.nanoTime();
+                int ftsCount = countRows(sqLiteUtils.search("goods", "name:" + word, ROW_COUNT));
+                ftsNanos += System.nanoTime() - startNanos;
+
+                assertEquals(ROW_COUNT / WORDS.length, likeCount);
+                assertEquals(likeCount, ftsCount);
+            }
+        }
+        int queryCount = QUERY_ROUNDS * WORDS.length;
+        Log.i(TAG, String.format("search %d rows, %d queries: LIKE %.2fms/query, FTS %.2fms/query (%.1fx)",
+                ROW_COUNT, queryCount, likeNanos / 1e6 / queryCount, ftsNanos / 1e6 / queryCount, (double) likeNanos / Math.max(1, ftsNanos)));
+    }
+
+    /**
+     * 遍历游标中的全部数据，遍历完毕后关闭
+     */
+    private int countRows(Cursor cursor) {
+        int count = 0;
+        try {
+            while (cursor.moveToNext()) {
+                count++;
+            }
+        } finally {
+            sqLiteUtils.close();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,72 @@
+package com.handy.base.utils;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.handy.base.utils.bean.SQLTable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 逐条插入时每次打开、关闭数据库与长连接模式的耗时对比，结果输出到logcat（TAG：SQLiteBenchmark）
+ */
+@RunWith(AndroidJUnit4.class)
+public class SQLiteKeepAliveBenchmark {
+    private static final String TAG = "SQLiteBenchmark";
+    private static final String DB_NAME = "keep_alive_benchmark.db";
+    private static final int[] ROW_COUNTS = {1000, 10000, 100000};
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getTargetContext();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void insertPerCallVersusKeepAlive() {
+        for (int rowCount : ROW_COUNTS) {
+            long perCallMillis = insertRows(false, rowCount);
+            long keepAliveMillis = insertRows(true, rowCount);
+            Log.i(TAG, String.format("insert %d rows: open/close per call %dms, keep-alive %dms (%.1fx)",
+                    rowCount, perCallMillis, keepAliveMillis, (double) perCallMillis / Math.max(1, keepAliveMillis)));
+        }
+    }
+
+    /**
+     * 逐条调用 {@link SQLiteUtils#insert(String, String, ContentValues)} 插入数据
+     *
+     * @return 耗时，单位：毫秒
+     */
+    private long insertRows(boolean isKeepAlive, int rowCount) {
+        context.deleteDatabase(DB_NAME);
+        SQLiteUtils sqLiteUtils = SQLiteUtils.getInstance(context, 1, DB_NAME);
+        sqLiteUtils.insertSQLTable(new SQLTable("bench", "CREATE TABLE bench (id INTEGER PRIMARY KEY, name TEXT, value INTEGER)"));
+        sqLiteUtils.setKeepAlive(isKeepAlive);
+        ContentValues contentValues = new ContentValues();
+        long startMillis = System.currentTimeMillis();
+        for (int i = 0; i < rowCount; i++) {
+            contentValues.put("name", "name" + i);
+            contentValues.put("value", i);
+            sqLiteUtils.insert("bench", null, contentValues);
+        }
+        long elapsedMillis = System.currentTimeMillis() - startMillis;
+        assertEquals(rowCount, sqLiteUtils.findLongColumn("SELECT count(*) FROM bench", null)[0]);
+        sqLiteUtils.shutdown();
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,141 @@
+package com.handy.base.utils;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.handy.base.config.SQLiteConfig;
+import com.handy.base.utils.bean.SQLTable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 一个写线程与多个读线程同时访问数据库时，默认日志模式与WAL模式的吞吐量对比，结果输出到logcat（TAG：SQLiteBenchmark）
+ */
+@RunWith(AndroidJUnit4.class)
+public class SQLiteWalBenchmark {
+    private static final String TAG = "SQLiteBenchmark";
+    private static final String DB_NAME = "wal_benchmark.db";
+    private static final int READER_COUNT = 4;
+    private static final int PRELOAD_ROWS = 10000;
+    private static final long DURATION_MILLIS = 5000;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getTargetContext();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void mixedReadWriteDefaultVersusWal() throws Exception {
+        long[] defaultOps = runMixed(new SQLiteConfig());
+        long[] walOps = runMixed(new SQLiteConfig().setWriteAheadLogging(true).setSynchronous("NORMAL"));
+        Log.i(TAG, String.format("mixed %ds, 1 writer + %d readers: default writes %d reads %d, WAL writes %d reads %d",
+                DURATION_MILLIS / 1000, READER_COUNT, defaultOps[0], defaultOps[1], walOps[0], walOps[1]));
+    }
+
+    /**
+     * 一个线程逐条插入，{@link #READER_COUNT} 个线程循环执行范围查询，持续 {@link #DURATION_MILLIS} 毫秒
+     *
+     * @return [写入次数, 查询次数]
+     */
+    private long[] runMixed(SQLiteConfig sqLiteConfig) throws Exception {
+        context.deleteDatabase(DB_NAME);
+        final SQLiteUtils sqLiteUtils = SQLiteUtils.getInstance(context, 1, DB_NAME, sqLiteConfig);
+        sqLiteUtils.insertSQLTable(new SQLTable("bench", "CREATE TABLE bench (id INTEGER PRIMARY KEY, name TEXT, value INTEGER)"));
+        sqLiteUtils.setKeepAlive(true);
+        ContentValues contentValues = new ContentValues();
+        sqLiteUtils.beginTransaction();
+        try {
+            for (int i = 0; i < PRELOAD_ROWS; i++) {
+                contentValues.put("name", "name" + i);
+                contentValues.put("value", i);
+                sqLiteUtils.insert("bench", null, contentValues);
+            }
+            sqLiteUtils.setTransactionSuccessful();
+        } finally {
+            sqLiteUtils.endTransaction();
+        }
+
+        final AtomicBoolean isStopped = new AtomicBoolean(false);
+        final AtomicLong writeCount = new AtomicLong();
+        final AtomicLong readCount = new AtomicLong();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch finished = new CountDownLatch(READER_COUNT + 1);
+
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    ContentValues values = new ContentValues();
+                    for (int i = PRELOAD_ROWS; !isStopped.get(); i++) {
+                        values.put("name", "name" + i);
+                        values.put("value", i);
+                        sqLiteUtils.insert("bench", null, values);
+                        writeCount.incrementAndGet();
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    finished.countDown();
+                }
+            }
+        }).start();
+        for (int r = 0; r < READER_COUNT; r++) {
+            final int offset = r;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = offset; !isStopped.get(); i += READER_COUNT) {
+                            int from = i % PRELOAD_ROWS;
+                            Cursor rows = sqLiteUtils.findBySQL("SELECT id, name FROM bench WHERE value BETWEEN ? AND ?",
+                                    new String[]{String.valueOf(from), String.valueOf(from + 100)});
+                            try {
+                                while (rows.moveToNext()) {
+                                    rows.getString(1);
+                                }
+                            } finally {
+                                rows.close();
+                            }
+                            readCount.incrementAndGet();
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        finished.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        Thread.sleep(DURATION_MILLIS);
+        isStopped.set(true);
+        assertTrue(finished.await(30, TimeUnit.SECONDS));
+        sqLiteUtils.shutdown();
+        assertNull(String.valueOf(failure.get()), failure.get());
+        return new long[]{writeCount.get(), readCount.get()};
+    }
+}
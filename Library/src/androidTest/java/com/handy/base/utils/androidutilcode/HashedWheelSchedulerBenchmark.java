@@ -0,0 +1,75 @@
+package com.handy.base.utils.androidutilcode;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 设置后立即取消大量超时任务时HashedWheelScheduler与ScheduledThreadPoolExecutor的耗时对比，结果输出到logcat（TAG：ThreadPoolBenchmark）
+ */
+@RunWith(AndroidJUnit4.class)
+public class HashedWheelSchedulerBenchmark {
+    private static final String TAG = "ThreadPoolBenchmark";
+    private static final int[] TIMER_COUNTS = {10000, 100000};
+    private static final int ROUNDS = 3;
+
+    @Test
+    public void scheduleAndCancelWheelVersusHeap() throws Exception {
+        HashedWheelScheduler wheel = new HashedWheelScheduler(Executors.newFixedThreadPool(1),
+                HashedWheelScheduler.DEFAULT_TICK_MILLIS, TimeUnit.MILLISECONDS, HashedWheelScheduler.DEFAULT_TICKS_PER_WHEEL,
+                new ThreadPoolUtils.NamedThreadFactory("wheel-benchmark", true, Thread.NORM_PRIORITY));
+        ScheduledThreadPoolExecutor heap = new ScheduledThreadPoolExecutor(1);
+        // 与时间轮一样在取消时移除任务，否则堆中会积累已取消的任务
+        heap.setRemoveOnCancelPolicy(true);
+        try {
+            // 预热，避免JIT编译计入首轮耗时
+            scheduleAndCancel(wheel, TIMER_COUNTS[0]);
+            scheduleAndCancel(heap, TIMER_COUNTS[0]);
+            for (int count : TIMER_COUNTS) {
+                long wheelNanos = Long.MAX_VALUE;
+                long heapNanos = Long.MAX_VALUE;
+                for (int round = 0; round < ROUNDS; round++) {
+                    wheelNanos = Math.min(wheelNanos, scheduleAndCancel(wheel, count));
+                    heapNanos = Math.min(heapNanos, scheduleAndCancel(heap, count));
+                }
+                Log.i(TAG, String.format("schedule+cancel %d timers: HashedWheelScheduler %.1fms, ScheduledThreadPoolExecutor %.1fms (%.1fx)",
+                        count, wheelNanos / 1e6, heapNanos / 1e6, (double) heapNanos / Math.max(1, wheelNanos)));
+            }
+        } finally {
+            wheel.shutdownNow();
+            heap.shutdownNow();
+        }
+    }
+
+    /**
+     * 设置延迟在10秒到1000秒之间的定时任务后全部取消
+     *
+     * @return 耗时，单位：纳秒
+     */
+    private static long scheduleAndCancel(ScheduledExecutorService scheduler, int count) {
+        Runnable noop = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        List<ScheduledFuture<?>> futures = new ArrayList<>(count);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            futures.add(scheduler.schedule(noop, 10 + i % 1000, TimeUnit.SECONDS));
+        }
+        for (ScheduledFuture<?> future : futures) {
+            future.cancel(false);
+        }
+        return System.nanoTime() - startNanos;
+    }
+}
@@ -0,0 +1,140 @@
+package com.handy.base.utils.androidutilcode;
+
+import android.os.Build;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import io.reactivex.functions.Function;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * WorkStealing线程池的 {@link ThreadPoolUtils#parallelMap(List, Function)} 与FixedThread线程池分段后
+ * {@link ThreadPoolUtils#invokeAll(java.util.Collection)} 的耗时对比，结果输出到logcat（TAG：ThreadPoolBenchmark）
+ * <p>分别测试每项耗时相同及耗时不均（约1/16的数据耗时为其他数据的32倍）两种负载，加速比相对单线程顺序执行计算。
+ * WorkStealing线程池在API 21以下退化为普通线程池，此时两者结果接近。</p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class ThreadPoolParallelMapBenchmark {
+    private static final String TAG = "ThreadPoolBenchmark";
+    private static final int SIZE = 20000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void workStealingParallelMapVersusFixedInvokeAll() throws Exception {
+        int processors = Runtime.getRuntime().availableProcessors();
+        ThreadPoolUtils workStealing = new ThreadPoolUtils(ThreadPoolUtils.WorkStealing, processors);
+        ThreadPoolUtils fixed = new ThreadPoolUtils(ThreadPoolUtils.FixedThread, processors);
+        try {
+            Log.i(TAG, String.format("parallelMap benchmark: %d cores, API %d", processors, Build.VERSION.SDK_INT));
+            for (boolean isSkewed : new boolean[]{false, true}) {
+                List<Integer> list = numbers();
+                Function<Integer, Long> mapper = newMapper(isSkewed);
+                // 预热，避免JIT编译及线程创建计入首轮耗时
+                sequentialMap(list, mapper);
+                workStealing.parallelMap(list, mapper);
+                chunkedInvokeAll(fixed, list, mapper, processors * 4);
+
+                long sequentialNanos = Long.MAX_VALUE;
+                long workStealingNanos = Long.MAX_VALUE;
+                long fixedNanos = Long.MAX_VALUE;
+                for (int round = 0; round < ROUNDS; round++) {
+                    long startNanos = System.nanoTime();
+                    List<Long> expected = sequentialMap(list, mapper);
+                    sequentialNanos = Math.min(sequentialNanos, System.nanoTime() - startNanos);
+
+                    startNanos = System.nanoTime();
+                    List<Long> stolen = workStealing.parallelMap(list, mapper);
+                    workStealingNanos = Math.min(workStealingNanos, System.nanoTime() - startNanos);
+
+                    startNanos = System.nanoTime();
+                    List<Long> chunked = chunkedInvokeAll(fixed, list, mapper, processors * 4);
+                    fixedNanos = Math.min(fixedNanos, System.nanoTime() - startNanos);
+
+                    assertEquals(expected, stolen);
+                    assertEquals(expected, chunked);
+                }
+                Log.i(TAG, String.format("%s %d items: sequential %.1fms, WorkStealing parallelMap %.1fms (%.2fx), FixedThread invokeAll %.1fms (%.2fx)",
+                        isSkewed ? "skewed" : "uniform", SIZE,
+                        sequentialNanos / 1e6,
+                        workStealingNanos / 1e6, (double) sequentialNanos / workStealingNanos,
+                        fixedNanos / 1e6, (double) sequentialNanos / fixedNanos));
+            }
+        } finally {
+            workStealing.shutDown();
+            fixed.shutDown();
+        }
+    }
+
+    private static List<Integer> numbers() {
+        List<Integer> numbers = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            numbers.add(i);
+        }
+        return numbers;
+    }
+
+    /**
+     * CPU密集型转换函数，耗时不均时每16项中有1项的计算量为其他项的32倍，且集中在集合前部
+     */
+    private static Function<Integer, Long> newMapper(final boolean isSkewed) {
+        return new Function<Integer, Long>() {
+            @Override
+            public Long apply(Integer value) {
+                int iterations = isSkewed && value % 16 == 0 && value < SIZE / 2 ? 32 * 500 : 500;
+                long hash = value;
+                for (int i = 0; i < iterations; i++) {
+                    hash = hash * 31 + (hash >>> 7) + i;
+                }
+                return hash;
+            }
+        };
+    }
+
+    private static List<Long> sequentialMap(List<Integer> list, Function<Integer, Long> mapper) throws Exception {
+        List<Long> results = new ArrayList<>(list.size());
+        for (Integer value : list) {
+            results.add(mapper.apply(value));
+        }
+        return results;
+    }
+
+    /**
+     * 将集合按段数等分后通过 {@link ThreadPoolUtils#invokeAll(java.util.Collection)} 执行，段数与ForkJoin拆分出的子任务数相同
+     */
+    private static List<Long> chunkedInvokeAll(ThreadPoolUtils pool, final List<Integer> list, final Function<Integer, Long> mapper,
+                                               int chunkCount) throws Exception {
+        final Long[] results = new Long[list.size()];
+        int chunkSize = (list.size() + chunkCount - 1) / chunkCount;
+        List<Callable<Void>> tasks = new ArrayList<>(chunkCount);
+        for (int from = 0; from < list.size(); from += chunkSize) {
+            final int start = from;
+            final int end = Math.min(list.size(), from + chunkSize);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    for (int i = start; i < end; i++) {
+                        results[i] = mapper.apply(list.get(i));
+                    }
+                    return null;
+                }
+            });
+        }
+        for (Future<Void> future : pool.invokeAll(tasks)) {
+            future.get();
+        }
+        List<Long> resultList = new ArrayList<>(results.length);
+        for (Long result : results) {
+            resultList.add(result);
+        }
+        return resultList;
+    }
+}
@@ -5,6 +5,7 @@ import android.content.Context;
 import com.blankj.utilcode.util.AppUtils;
 import com.blankj.utilcode.util.ObjectUtils;
 import com.handy.base.utils.ProcessUtils;
+import com.handy.base.utils.SQLiteProfiler;
 import com.tencent.bugly.Bugly;
 import com.tencent.bugly.crashreport.CrashReport;
 
@@ -20,6 +21,10 @@ import java.util.Map;
  * @modified By LiuJie
  */
 public class BuglyConfig {
+    /**
+     * 发生Crash时上报的SQLite语句耗时统计项数
+     */
+    private static final int SQLITE_SNAPSHOT_LIMIT = 20;
     /**
      * 是否启用Debug模式，默认：false-不启用
      */
@@ -56,6 +61,10 @@ public class BuglyConfig {
      * 发生Crash时，一起上报的一些附加的跟踪数据信息，默认：new HashMap<>()-已实例化但无内容
      */
     private HashMap<String, String> crashFollowInfo = new HashMap<>();
+    /**
+     * 发生Crash时，将其统计快照一起上报的SQLite语句耗时统计，默认：null-不上报
+     */
+    private SQLiteProfiler sqLiteProfiler = null;
 
     /**
      * 实例化Bugly配置对象，由于会用到AppUtils工具类，请务必保证Application执行完父类的onCreate方法后在实例化此对象
@@ -119,6 +128,9 @@ public class BuglyConfig {
             @Override
             public synchronized Map<String, String> onCrashHandleStart(int crashType, String errorType, String errorMessage, String errorStack) {
                 try {
+                    if (sqLiteProfiler != null) {
+                        crashFollowInfo.putAll(sqLiteProfiler.snapshot(SQLITE_SNAPSHOT_LIMIT));
+                    }
                     if (ObjectUtils.isNotEmpty(crashFollowInfo)) {
                         return crashFollowInfo;
                     } else {
@@ -226,6 +238,20 @@ public class BuglyConfig {
         return this;
     }
 
+    public SQLiteProfiler getSQLiteProfiler() {
+        return sqLiteProfiler;
+    }
+
+    /**
+     * 设置发生Crash时一起上报的SQLite语句耗时统计，上报总耗时最高的语句统计
+     *
+     * @param sqLiteProfiler 通过 {@link com.handy.base.utils.SQLiteUtils#setProfiler(SQLiteProfiler)} 开启的耗时统计对象
+     */
+    public BuglyConfig setSQLiteProfiler(SQLiteProfiler sqLiteProfiler) {
+        this.sqLiteProfiler = sqLiteProfiler;
+        return this;
+    }
+
     @Override
     public String toString() {
         StringBuilder stringBuilder = new StringBuilder();
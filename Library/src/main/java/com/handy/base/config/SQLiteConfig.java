@@ -0,0 +1,236 @@
+package com.handy.base.config;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.blankj.utilcode.util.ObjectUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQLite数据库连接配置对象
+ * <p>包括预写日志（WAL）模式及journal_mode、synchronous、cache_size、mmap_size、temp_store等PRAGMA参数，未设置的参数保持SQLite默认值。</p>
+ * <p>注意：除journal_mode外，这些PRAGMA只对执行它的数据库连接生效，而 {@link #apply(SQLiteDatabase)} 只在主连接上执行。
+ * 开启WAL模式后，SQLiteDatabase内部为并发查询额外打开的只读连接不会应用cache_size、mmap_size、temp_store，
+ * 其synchronous由系统配置决定（通常为NORMAL或FULL）。所有写操作及事务内的查询均在主连接上执行，因此synchronous对写入持久性的设置仍然有效；
+ * cache_size、mmap_size、temp_store对只读连接上的并发查询不生效。API 27的SQLiteDatabase.OpenParams不提供按连接设置这些参数的接口。</p>
+ * <p>设置加密密钥后使用SQLCipher打开整库加密的数据库，见 {@link #setEncryptionKey(char[])}。</p>
+ */
+public class SQLiteConfig {
+    /**
+     * 是否启用预写日志（WAL）模式，启用后读操作不再阻塞写操作，默认：false-不启用
+     */
+    private boolean isWriteAheadLogging = false;
+    /**
+     * 日志模式，如DELETE、TRUNCATE、PERSIST、MEMORY，启用WAL模式时忽略，默认：null-SQLite默认值
+     */
+    private String journalMode = null;
+    /**
+     * 同步模式，如OFF、NORMAL、FULL，WAL模式下推荐NORMAL，默认：null-SQLite默认值
+     */
+    private String synchronous = null;
+    /**
+     * 页缓存大小，正数为页数，负数为KiB，只作用于主连接，默认：null-SQLite默认值
+     */
+    private Integer cacheSize = null;
+    /**
+     * 内存映射IO的最大字节数，0为关闭，只作用于主连接，默认：null-SQLite默认值
+     */
+    private Long mmapSize = null;
+    /**
+     * 临时表及索引的存储位置，如DEFAULT、FILE、MEMORY，只作用于主连接，默认：null-SQLite默认值
+     */
+    private String tempStore = null;
+    /**
+     * 数据库加密密钥，设置后使用SQLCipher打开整库加密的数据库，默认：null-不加密
+     */
+    private char[] encryptionKey = null;
+
+    /**
+     * 实例化默认配置，所有参数保持SQLite默认值
+     */
+    public SQLiteConfig() {
+    }
+
+    /**
+     * 将配置应用到数据库连接，需在数据库连接打开后、执行事务前调用
+     * <p>只作用于传入的连接，WAL模式下的只读连接见类说明。</p>
+     *
+     * @param db 数据库连接
+     */
+    public void apply(SQLiteDatabase db) {
+        if (isWriteAheadLogging) {
+            db.enableWriteAheadLogging();
+        }
+        for (String pragma : getPragmas(!isWriteAheadLogging)) {
+            Cursor cursor = db.rawQuery(pragma, null);
+            try {
+                cursor.moveToFirst();
+            } finally {
+                cursor.close();
+            }
+        }
+    }
+
+    /**
+     * 将配置应用到SQLCipher加密数据库连接，需在设置密钥后、执行事务前调用
+     * <p>SQLCipher没有enableWriteAheadLogging方法，WAL模式通过journal_mode设置；加密数据库只有一个连接，查询与写操作串行执行。</p>
+     *
+     * @param db 加密数据库连接
+     */
+    public void apply(net.sqlcipher.database.SQLiteDatabase db) {
+        for (String pragma : getPragmas(true)) {
+            Cursor cursor = db.rawQuery(pragma, new String[0]);
+            try {
+                cursor.moveToFirst();
+            } finally {
+                cursor.close();
+            }
+        }
+    }
+
+    /**
+     * 部分PRAGMA会返回结果行，使用execSQL执行会抛出异常，因此统一通过rawQuery执行
+     *
+     * @param isJournalModeIncluded 是否包含journal_mode，启用WAL模式时为journal_mode = WAL
+     */
+    private List<String> getPragmas(boolean isJournalModeIncluded) {
+        List<String> pragmas = new ArrayList<>();
+        if (isJournalModeIncluded) {
+            if (isWriteAheadLogging) {
+                pragmas.add("PRAGMA journal_mode = WAL");
+            } else if (ObjectUtils.isNotEmpty(journalMode)) {
+                pragmas.add("PRAGMA journal_mode = " + journalMode);
+            }
+        }
+        if (ObjectUtils.isNotEmpty(synchronous)) {
+            pragmas.add("PRAGMA synchronous = " + synchronous);
+        }
+        if (cacheSize != null) {
+            pragmas.add("PRAGMA cache_size = " + cacheSize);
+        }
+        if (mmapSize != null) {
+            pragmas.add("PRAGMA mmap_size = " + mmapSize);
+        }
+        if (ObjectUtils.isNotEmpty(tempStore)) {
+            pragmas.add("PRAGMA temp_store = " + tempStore);
+        }
+        return pragmas;
+    }
+
+    public boolean isWriteAheadLogging() {
+        return isWriteAheadLogging;
+    }
+
+    public SQLiteConfig setWriteAheadLogging(boolean writeAheadLogging) {
+        isWriteAheadLogging = writeAheadLogging;
+        return this;
+    }
+
+    public String getJournalMode() {
+        return journalMode;
+    }
+
+    public SQLiteConfig setJournalMode(String journalMode) {
+        this.journalMode = journalMode;
+        return this;
+    }
+
+    public String getSynchronous() {
+        return synchronous;
+    }
+
+    public SQLiteConfig setSynchronous(String synchronous) {
+        this.synchronous = synchronous;
+        return this;
+    }
+
+    public Integer getCacheSize() {
+        return cacheSize;
+    }
+
+    public SQLiteConfig setCacheSize(Integer cacheSize) {
+        this.cacheSize = cacheSize;
+        return this;
+    }
+
+    public Long getMmapSize() {
+        return mmapSize;
+    }
+
+    public SQLiteConfig setMmapSize(Long mmapSize) {
+        this.mmapSize = mmapSize;
+        return this;
+    }
+
+    public String getTempStore() {
+        return tempStore;
+    }
+
+    public SQLiteConfig setTempStore(String tempStore) {
+        this.tempStore = tempStore;
+        return this;
+    }
+
+    /**
+     * 是否设置了加密密钥
+     */
+    public boolean isEncrypted() {
+        return encryptionKey != null && encryptionKey.length > 0;
+    }
+
+    public char[] getEncryptionKey() {
+        return encryptionKey;
+    }
+
+    /**
+     * 设置数据库加密口令，使用SQLCipher打开整库加密的数据库
+     * <p>SQLCipher打开数据库时通过PBKDF2由口令派生密钥，耗时较长，因此加密数据库始终保持长连接，进程内只派生一次；
+     * 已由其他方式派生好密钥时可使用 {@link #setEncryptionKey(byte[])} 跳过派生。</p>
+     * <p>未加密的数据库文件不能直接以加密方式打开，切换前需删除或导出原数据库。</p>
+     *
+     * @param passphrase 口令，null-不加密
+     */
+    public SQLiteConfig setEncryptionKey(char[] passphrase) {
+        this.encryptionKey = passphrase;
+        return this;
+    }
+
+    /**
+     * 设置数据库原始密钥，SQLCipher直接使用该密钥，不再通过PBKDF2派生
+     *
+     * @param rawKey 32字节原始密钥，如由Android KeyStore保护的随机密钥
+     */
+    public SQLiteConfig setEncryptionKey(byte[] rawKey) {
+        if (rawKey == null || rawKey.length != 32) {
+            throw new IllegalArgumentException("rawKey must be 32 bytes");
+        }
+        char[] hexDigits = "0123456789ABCDEF".toCharArray();
+        char[] key = new char[rawKey.length * 2 + 3];
+        key[0] = 'x';
+        key[1] = '\'';
+        for (int i = 0; i < rawKey.length; i++) {
+            key[2 + i * 2] = hexDigits[(rawKey[i] >> 4) & 0x0F];
+            key[3 + i * 2] = hexDigits[rawKey[i] & 0x0F];
+        }
+        key[key.length - 1] = '\'';
+        this.encryptionKey = key;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append("==========SQLite配置信息==========").append("\n");
+        stringBuilder.append("是否启用WAL模式：  【").append(isWriteAheadLogging).append("】").append("\n");
+        stringBuilder.append("journal_mode：  【").append(journalMode).append("】").append("\n");
+        stringBuilder.append("synchronous：  【").append(synchronous).append("】").append("\n");
+        stringBuilder.append("cache_size：  【").append(cacheSize).append("】").append("\n");
+        stringBuilder.append("mmap_size：  【").append(mmapSize).append("】").append("\n");
+        stringBuilder.append("temp_store：  【").append(tempStore).append("】").append("\n");
+        stringBuilder.append("是否加密：  【").append(isEncrypted()).append("】").append("\n");
+        stringBuilder.append("================================");
+        return stringBuilder.toString();
+    }
+}
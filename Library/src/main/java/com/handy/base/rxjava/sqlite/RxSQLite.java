@@ -0,0 +1,232 @@
+package com.handy.base.rxjava.sqlite;
+
+import android.content.ContentValues;
+
+import com.handy.base.mvp.IView;
+import com.handy.base.rxjava.lifecycle.RxLifecycleUtils;
+import com.handy.base.utils.SQLiteUtils;
+import com.handy.base.utils.androidutilcode.ThreadPoolRegistry;
+import com.handy.base.utils.androidutilcode.ThreadPoolUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * {@link SQLiteUtils} 的RxJava异步封装
+ * <p>写操作默认在进程内共享的数据库串行线程 {@link ThreadPoolRegistry#db()} 上执行，查询在线程数有上限的
+ * {@link ThreadPoolRegistry#dbRead()} 上执行，开启WAL模式时查询不必等待写操作；不占用无上限的 {@link Schedulers#io()} 线程池。</p>
+ * <p>本类不持有也不关闭线程池，共享线程池不与BaseApplication的生命周期绑定，需要关闭时由调用方调用
+ * {@link ThreadPoolRegistry#shutdownAll(long, java.util.concurrent.TimeUnit)}。
+ * 返回的数据流可通过 {@link RxLifecycleUtils#bindToLifecycle(IView)} 绑定界面生命周期，界面销毁时自动取消：</p>
+ * <pre>
+ * rxSQLite.findList(sql, null, rowMapper)
+ *         .observeOn(AndroidSchedulers.mainThread())
+ *         .compose(RxLifecycleUtils.&lt;List&lt;User&gt;&gt;bindToLifecycle(view))
+ *         .subscribe(...);
+ * </pre>
+ *
+ * @description 数据库操作返回Single/Completable/Flowable/Observable
+ */
+public class RxSQLite {
+    /**
+     * 在 {@link ThreadPoolRegistry#db()} 中执行任务，每次执行时重新获取，共享线程池关闭后重新创建时仍可使用
+     */
+    private static final Executor DB_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            ThreadPoolRegistry.db().execute(command);
+        }
+    };
+    /**
+     * 在 {@link ThreadPoolRegistry#dbRead()} 中执行任务，同样每次执行时重新获取
+     */
+    private static final Executor DB_READ_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            ThreadPoolRegistry.dbRead().execute(command);
+        }
+    };
+
+    private final SQLiteUtils sqLiteUtils;
+    private final Scheduler scheduler;
+    private final Scheduler readScheduler;
+
+    /**
+     * 写操作在 {@link ThreadPoolRegistry#db()} 上串行执行，查询在 {@link ThreadPoolRegistry#dbRead()} 上并行执行
+     *
+     * @param sqLiteUtils 数据库操作对象
+     */
+    public RxSQLite(SQLiteUtils sqLiteUtils) {
+        this(sqLiteUtils, Schedulers.from(DB_EXECUTOR), Schedulers.from(DB_READ_EXECUTOR));
+    }
+
+    /**
+     * 读写操作均在同一调度器上执行
+     *
+     * @param sqLiteUtils 数据库操作对象
+     * @param scheduler   数据库调度器
+     */
+    public RxSQLite(SQLiteUtils sqLiteUtils, Scheduler scheduler) {
+        this(sqLiteUtils, scheduler, scheduler);
+    }
+
+    /**
+     * @param sqLiteUtils   数据库操作对象
+     * @param scheduler     写操作调度器，应为单线程，避免多个线程争用数据库写锁
+     * @param readScheduler 查询调度器，可传入由 {@link ThreadPoolRegistry#register(String, ThreadPoolUtils)} 注册的线程池创建的调度器
+     */
+    public RxSQLite(SQLiteUtils sqLiteUtils, Scheduler scheduler, Scheduler readScheduler) {
+        this.sqLiteUtils = sqLiteUtils;
+        this.scheduler = scheduler;
+        this.readScheduler = readScheduler;
+    }
+
+    /**
+     * 插入数据
+     *
+     * @see SQLiteUtils#insert(String, String, ContentValues)
+     */
+    public Single<Long> insert(final String tableName, final String nullColumn, final ContentValues contentValues) {
+        return Single.fromCallable(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                return sqLiteUtils.insert(tableName, nullColumn, contentValues);
+            }
+        }).subscribeOn(scheduler);
+    }
+
+    /**
+     * 批量插入数据
+     *
+     * @see SQLiteUtils#insertAll(String, List)
+     */
+    public Single<Integer> insertAll(final String tableName, final List<ContentValues> contentValuesList) {
+        return Single.fromCallable(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return sqLiteUtils.insertAll(tableName, contentValuesList);
+            }
+        }).subscribeOn(scheduler);
+    }
+
+    /**
+     * 通过主键ID删除数据
+     *
+     * @see SQLiteUtils#delete(String, String, int)
+     */
+    public Single<Long> delete(final String tableName, final String key, final int id) {
+        return Single.fromCallable(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                return sqLiteUtils.delete(tableName, key, id);
+            }
+        }).subscribeOn(scheduler);
+    }
+
+    /**
+     * 更新数据
+     *
+     * @see SQLiteUtils#udpate(String, String[], String[], ContentValues)
+     */
+    public Single<Boolean> update(final String tableName, final String[] names, final String[] values, final ContentValues args) {
+        return Single.fromCallable(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return sqLiteUtils.udpate(tableName, names, values, args);
+            }
+        }).subscribeOn(scheduler);
+    }
+
+    /**
+     * 执行sql语句
+     *
+     * @see SQLiteUtils#executeSql(String)
+     */
+    public Completable executeSql(final String sql) {
+        return Completable.fromAction(new Action() {
+            @Override
+            public void run() throws Exception {
+                sqLiteUtils.executeSql(sql);
+            }
+        }).subscribeOn(scheduler);
+    }
+
+    /**
+     * 执行查询并将所有行转换为对象集合
+     *
+     * @see SQLiteUtils#findList(String, String[], SQLiteUtils.RowMapper)
+     */
+    public <T> Single<List<T>> findList(final String sql, final String[] selectionArgs, final SQLiteUtils.RowMapper<T> rowMapper) {
+        return Single.fromCallable(new Callable<List<T>>() {
+            @Override
+            public List<T> call() throws Exception {
+                return sqLiteUtils.findList(sql, selectionArgs, rowMapper);
+            }
+        }).subscribeOn(readScheduler);
+    }
+
+    /**
+     * 执行查询并逐行发射转换后的对象，取消订阅后关闭游标
+     *
+     * @see SQLiteUtils#findFlowable(String, String[], SQLiteUtils.RowMapper)
+     */
+    public <T> Flowable<T> findFlowable(String sql, String[] selectionArgs, SQLiteUtils.RowMapper<T> rowMapper) {
+        return sqLiteUtils.findFlowable(sql, selectionArgs, rowMapper).subscribeOn(readScheduler);
+    }
+
+    /**
+     * 按主键分页遍历整张表
+     *
+     * @see SQLiteUtils#findAllPaged(String, String, String[], int, SQLiteUtils.RowMapper)
+     */
+    public <T> Flowable<T> findAllPaged(String tableName, String key, String[] columns, int pageSize, SQLiteUtils.RowMapper<T> rowMapper) {
+        return sqLiteUtils.findAllPaged(tableName, key, columns, pageSize, rowMapper).subscribeOn(readScheduler);
+    }
+
+    /**
+     * 创建随数据表变更自动重新执行的查询，首次及后续的查询均在查询调度器上执行
+     *
+     * @see SQLiteUtils#createQuery(String[], String, String[], SQLiteUtils.RowMapper)
+     */
+    public <T> Observable<List<T>> createQuery(String[] tableNames, final String sql, final String[] selectionArgs, final SQLiteUtils.RowMapper<T> rowMapper) {
+        return sqLiteUtils.observeTables(tableNames)
+                .startWith(Collections.<String>emptySet())
+                .observeOn(readScheduler)
+                .map(new Function<Set<String>, List<T>>() {
+                    @Override
+                    public List<T> apply(Set<String> changedTables) throws Exception {
+                        return sqLiteUtils.findList(sql, selectionArgs, rowMapper);
+                    }
+                });
+    }
+
+    /**
+     * 数据库写操作调度器，可用于自定义的数据库写操作
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * 数据库查询调度器，可用于自定义的查询
+     */
+    public Scheduler getReadScheduler() {
+        return readScheduler;
+    }
+
+    public SQLiteUtils getSqLiteUtils() {
+        return sqLiteUtils;
+    }
+}
@@ -18,6 +18,10 @@ package com.handy.base.utils;
 import com.blankj.utilcode.util.LogUtils;
 import com.blankj.utilcode.util.ObjectUtils;
 
+import java.nio.charset.Charset;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
 import javax.crypto.Cipher;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
@@ -29,20 +33,48 @@ import javax.crypto.spec.SecretKeySpec;
  *  time  : 2017-4-18 10:14:23
  *  desc  : AES加密解密工具类
  * </pre>
+ * <p>密钥由调用方提供，长度为16、24或32字节。每次加密使用随机生成的向量，向量拼接在密文之前一起进行Base64编码，
+ * 相同明文每次加密的结果不同。</p>
+ * <p>需要加密整个数据库时使用 {@link com.handy.base.config.SQLiteConfig#setEncryptionKey(char[])}，而不是逐列加密。</p>
+ * <p>使用默认密钥的 {@link #encrypt(String)}、{@link #decrypt(String)} 已过时，仅用于读取旧版本使用固定向量加密的数据，
+ * 读取后应使用 {@link #encrypt(String, String)} 重新加密。</p>
  */
 public final class AesUtils {
 
-    private static final byte[] iv = {1, 2, 3, 4, 5, 6, 7, 8, 9, 'A', 'B', 'C', 'D', 'E', 'F', 0};
+    private static final int IV_LENGTH = 16;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final SecureRandom secureRandom = new SecureRandom();
+    /**
+     * 最近一次使用的密钥及其生成的密钥对象，同一密钥在进程内只生成一次
+     */
+    private static String cachedKey;
+    private static SecretKeySpec cachedKeySpec;
+    /**
+     * 各线程的加解密对象，避免每次加解密都查找算法实现
+     */
+    private static final ThreadLocal<Cipher> ciphers = new ThreadLocal<>();
+    /**
+     * 旧版本加密使用的固定向量
+     */
+    private static final byte[] LEGACY_IV = {1, 2, 3, 4, 5, 6, 7, 8, 9, 'A', 'B', 'C', 'D', 'E', 'F', 0};
     private static String DEFAULT_KEY = "HANDY_SECRET_KEY";
 
     private AesUtils() {
         throw new UnsupportedOperationException("u can't instantiate me...");
     }
 
+    /**
+     * @deprecated 默认密钥随库发布，不能保护数据，使用 {@link #encrypt(String, String)} 并由调用方管理密钥
+     */
+    @Deprecated
     public static String getDEFAULT_KEY() {
         return DEFAULT_KEY;
     }
 
+    /**
+     * @deprecated 使用 {@link #encrypt(String, String)} 并由调用方管理密钥
+     */
+    @Deprecated
     public static void setDEFAULT_KEY(String default_key) {
         if (ObjectUtils.isEmpty(default_key)) {
             LogUtils.d("密钥为空");
@@ -54,70 +86,139 @@ public final class AesUtils {
     }
 
     /**
-     * AES 加密
+     * AES 加密，使用默认密钥及固定向量，与旧版本的密文格式相同
      *
      * @param src 明文
      * @return 密文
+     * @deprecated 固定向量使相同明文的密文相同，使用 {@link #encrypt(String, String)}
      */
+    @Deprecated
     public static String encrypt(String src) {
+        if (src == null) {
+            LogUtils.e("明文为空");
+            return null;
+        }
         try {
-            return encrypt(DEFAULT_KEY, src);
+            Cipher cipher = getCipher();
+            cipher.init(Cipher.ENCRYPT_MODE, getKeySpec(DEFAULT_KEY), new IvParameterSpec(LEGACY_IV));
+            return Base64Utils.encode(cipher.doFinal(src.getBytes(UTF_8)));
         } catch (Exception e) {
-            e.printStackTrace();
+            ciphers.remove();
+            LogUtils.e(e);
         }
         return null;
     }
 
-    private static String encrypt(String key, String src) {
+    /**
+     * AES 解密，读取旧版本使用默认密钥及固定向量加密的数据
+     *
+     * @param src 旧版本 {@link #encrypt(String)} 返回的密文
+     * @return 明文，解密失败返回null
+     * @deprecated 读取后使用 {@link #encrypt(String, String)} 重新加密，新数据使用 {@link #decrypt(String, String)}
+     */
+    @Deprecated
+    public static String decrypt(String src) {
+        if (src == null) {
+            LogUtils.e("密文为空");
+            return null;
+        }
         try {
-            byte[] keyByte = key.getBytes();
-            SecretKeySpec keySpec = new SecretKeySpec(keyByte, "AES");
-            //“算法/模式/补码方式”。
-            Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
-            //使用CBC模式，需要一个向量iv，可增加加密算法的强度。
-            IvParameterSpec ivSpec = new IvParameterSpec(iv);
-            cipher.init(Cipher.ENCRYPT_MODE, keySpec, ivSpec);
-            //加密。
-            byte[] srcByte = src.getBytes();
-            byte[] encrypted = cipher.doFinal(srcByte);
-            //Base64转码。
-            return Base64Utils.encode(encrypted);
+            byte[] srcByte = Base64Utils.decode(src);
+            if (srcByte == null) {
+                LogUtils.e("密文格式错误");
+                return null;
+            }
+            Cipher cipher = getCipher();
+            cipher.init(Cipher.DECRYPT_MODE, getKeySpec(DEFAULT_KEY), new IvParameterSpec(LEGACY_IV));
+            return new String(cipher.doFinal(srcByte), UTF_8);
         } catch (Exception e) {
-            e.printStackTrace();
+            ciphers.remove();
+            LogUtils.e(e);
         }
         return null;
     }
 
     /**
-     * AES 解密
+     * AES 加密
      *
-     * @param src 密文
-     * @return 明文
+     * @param key 密钥，长度为16、24或32字节
+     * @param src 明文
+     * @return Base64编码的向量及密文，加密失败返回null
      */
-    public static String decrypt(String src) {
+    public static String encrypt(String key, String src) {
+        if (ObjectUtils.isEmpty(key) || src == null) {
+            LogUtils.e("密钥或明文为空");
+            return null;
+        }
         try {
-            return decrypt(DEFAULT_KEY, src);
+            byte[] iv = new byte[IV_LENGTH];
+            secureRandom.nextBytes(iv);
+            Cipher cipher = getCipher();
+            //使用CBC模式，需要一个向量iv，可增加加密算法的强度。
+            cipher.init(Cipher.ENCRYPT_MODE, getKeySpec(key), new IvParameterSpec(iv));
+            //加密。
+            byte[] srcByte = src.getBytes(UTF_8);
+            byte[] encrypted = new byte[IV_LENGTH + cipher.getOutputSize(srcByte.length)];
+            System.arraycopy(iv, 0, encrypted, 0, IV_LENGTH);
+            int length = IV_LENGTH + cipher.doFinal(srcByte, 0, srcByte.length, encrypted, IV_LENGTH);
+            //Base64转码。
+            return Base64Utils.encode(length == encrypted.length ? encrypted : Arrays.copyOf(encrypted, length));
         } catch (Exception e) {
-            e.printStackTrace();
+            ciphers.remove();
+            LogUtils.e(e);
         }
         return null;
     }
 
-    private static String decrypt(String key, String src) {
+    /**
+     * AES 解密
+     *
+     * @param key 密钥，与加密时使用的密钥相同
+     * @param src {@link #encrypt(String, String)} 返回的密文
+     * @return 明文，解密失败返回null
+     */
+    public static String decrypt(String key, String src) {
+        if (ObjectUtils.isEmpty(key) || src == null) {
+            LogUtils.e("密钥或密文为空");
+            return null;
+        }
         try {
-            byte[] keyByte = key.getBytes();
-            SecretKeySpec keySpec = new SecretKeySpec(keyByte, "AES");
-            Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
-            IvParameterSpec ivSpec = new IvParameterSpec(iv);
-            cipher.init(Cipher.DECRYPT_MODE, keySpec, ivSpec);
             //Base64转码。
             byte[] srcByte = Base64Utils.decode(src);
+            if (srcByte == null || srcByte.length <= IV_LENGTH) {
+                LogUtils.e("密文格式错误");
+                return null;
+            }
+            Cipher cipher = getCipher();
+            cipher.init(Cipher.DECRYPT_MODE, getKeySpec(key), new IvParameterSpec(srcByte, 0, IV_LENGTH));
             //解密。
-            byte[] decrypted = cipher.doFinal(srcByte);
-            return new String(decrypted);
+            byte[] decrypted = cipher.doFinal(srcByte, IV_LENGTH, srcByte.length - IV_LENGTH);
+            return new String(decrypted, UTF_8);
         } catch (Exception e) {
-            e.printStackTrace();
+            ciphers.remove();
+            LogUtils.e(e);
         }
         return null;
     }
+
+    /**
+     * 获取当前线程的加解密对象，每次加解密前需使用新的向量重新初始化
+     */
+    private static Cipher getCipher() throws Exception {
+        Cipher cipher = ciphers.get();
+        if (cipher == null) {
+            //“算法/模式/补码方式”。
+            cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+            ciphers.set(cipher);
+        }
+        return cipher;
+    }
+
+    private static synchronized SecretKeySpec getKeySpec(String key) {
+        if (!key.equals(cachedKey)) {
+            cachedKeySpec = new SecretKeySpec(key.getBytes(UTF_8), "AES");
+            cachedKey = key;
+        }
+        return cachedKeySpec;
+    }
 }
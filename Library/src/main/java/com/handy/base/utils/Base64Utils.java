@@ -1,5 +1,15 @@
 package com.handy.base.utils;
 
+import com.blankj.utilcode.util.LogUtils;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
 /**
  * <pre>
  *  author: Handy
@@ -7,107 +17,585 @@ package com.handy.base.utils;
  *  time  : 2017-4-18 10:14:23
  *  desc  : Base64可逆加密算法工具类
  * </pre>
+ * <p>编码时按 {@link #encodedLength(int, int)} 预先计算长度，直接写入目标数组；解码时直接写入目标数组或 {@link ByteBuffer}，
+ * 不产生中间字符串。大文件使用 {@link #wrapEncoder(OutputStream, int)}、{@link #wrapDecoder(InputStream)} 流式处理。</p>
+ * <p>解码兼容标准及URL安全字符集，忽略换行等非Base64字符，遇到填充符"="时结束，填充符可省略。</p>
  */
 public class Base64Utils {
+    /**
+     * 标准编码：字符集包含"+"、"/"，末尾使用"="填充
+     */
+    public static final int DEFAULT = 0;
+    /**
+     * 编码时省略末尾的"="填充符
+     */
+    public static final int NO_PADDING = 1;
+    /**
+     * 编码时使用URL及文件名安全的字符集，以"-"、"_"代替"+"、"/"
+     */
+    public static final int URL_SAFE = 2;
+
+    private static final byte PAD = '=';
+    /**
+     * 流式编解码的缓冲区大小，须为3和4的公倍数
+     */
+    private static final int STREAM_BUFFER_SIZE = 3 * 4 * 256;
 
-    private static char[] base64EncodeChars = new char[]{'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J', 'K', 'L', 'M', 'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U', 'V', 'W', 'X', 'Y', 'Z', 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j', 'k', 'l', 'm', 'n', 'o', 'p', 'q', 'r', 's', 't', 'u', 'v', 'w', 'x', 'y', 'z', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '+', '/'};
-    private static byte[] base64DecodeChars = new byte[]{-1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 62, -1, -1, -1, 63, 52, 53, 54, 55, 56, 57, 58, 59, 60, 61, -1, -1, -1, -1, -1, -1, -1, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25, -1, -1, -1, -1, -1, -1, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35, 36, 37, 38, 39, 40, 41, 42, 43, 44, 45, 46, 47, 48, 49, 50, 51, -1, -1, -1, -1, -1};
+    private static final byte[] ENCODE_CHARS = {'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J', 'K', 'L', 'M', 'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U', 'V', 'W', 'X', 'Y', 'Z', 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j', 'k', 'l', 'm', 'n', 'o', 'p', 'q', 'r', 's', 't', 'u', 'v', 'w', 'x', 'y', 'z', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '+', '/'};
+    private static final byte[] ENCODE_CHARS_URL_SAFE = {'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J', 'K', 'L', 'M', 'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U', 'V', 'W', 'X', 'Y', 'Z', 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j', 'k', 'l', 'm', 'n', 'o', 'p', 'q', 'r', 's', 't', 'u', 'v', 'w', 'x', 'y', 'z', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '-', '_'};
+    /**
+     * ASCII字符对应的6位值，同时包含标准及URL安全字符集，-1为非Base64字符
+     */
+    private static final byte[] DECODE_CHARS = new byte[128];
+
+    static {
+        for (int i = 0; i < DECODE_CHARS.length; i++) {
+            DECODE_CHARS[i] = -1;
+        }
+        for (int i = 0; i < ENCODE_CHARS.length; i++) {
+            DECODE_CHARS[ENCODE_CHARS[i]] = (byte) i;
+            DECODE_CHARS[ENCODE_CHARS_URL_SAFE[i]] = (byte) i;
+        }
+    }
 
     private Base64Utils() {
         throw new UnsupportedOperationException("u can't instantiate me...");
     }
 
+    /**
+     * 计算编码后的长度
+     *
+     * @param length 原始数据长度
+     * @param flags  {@link #DEFAULT}、{@link #NO_PADDING}、{@link #URL_SAFE}的组合
+     * @return 编码后的字符数
+     */
+    public static int encodedLength(int length, int flags) {
+        if ((flags & NO_PADDING) != 0) {
+            return length / 3 * 4 + (length % 3 == 0 ? 0 : length % 3 + 1);
+        }
+        return (length + 2) / 3 * 4;
+    }
+
     /**
      * 加密
      *
-     * @param data
-     * @return
+     * @param data 原始数据
+     * @return 标准Base64字符串
      */
     public static String encode(byte[] data) {
-        StringBuffer sb = new StringBuffer();
-        int len = data.length;
-        int i = 0;
-        int b1, b2, b3;
-        while (i < len) {
-            b1 = data[i++] & 0xff;
-            if (i == len) {
-                sb.append(base64EncodeChars[b1 >>> 2]);
-                sb.append(base64EncodeChars[(b1 & 0x3) << 4]);
-                sb.append("==");
+        return encode(data, DEFAULT);
+    }
+
+    /**
+     * 加密
+     *
+     * @param data  原始数据
+     * @param flags {@link #DEFAULT}、{@link #NO_PADDING}、{@link #URL_SAFE}的组合
+     * @return Base64字符串
+     */
+    public static String encode(byte[] data, int flags) {
+        char[] chars = new char[encodedLength(data.length, flags)];
+        encode(data, 0, data.length, chars, 0, flags);
+        return new String(chars);
+    }
+
+    /**
+     * 加密为ASCII字节数组，用于直接写入文件或网络
+     *
+     * @param data  原始数据
+     * @param flags {@link #DEFAULT}、{@link #NO_PADDING}、{@link #URL_SAFE}的组合
+     * @return Base64字符的ASCII字节数组
+     */
+    public static byte[] encodeToBytes(byte[] data, int flags) {
+        byte[] bytes = new byte[encodedLength(data.length, flags)];
+        encode(data, 0, data.length, bytes, 0, flags);
+        return bytes;
+    }
+
+    /**
+     * 加密到目标字节数组
+     *
+     * @param src    原始数据
+     * @param offset 原始数据起始位置
+     * @param length 原始数据长度
+     * @param dst    目标数组，剩余长度不小于 {@link #encodedLength(int, int)}
+     * @param dstPos 目标数组起始位置
+     * @param flags  {@link #DEFAULT}、{@link #NO_PADDING}、{@link #URL_SAFE}的组合
+     * @return 写入的字节数
+     */
+    public static int encode(byte[] src, int offset, int length, byte[] dst, int dstPos, int flags) {
+        byte[] table = (flags & URL_SAFE) != 0 ? ENCODE_CHARS_URL_SAFE : ENCODE_CHARS;
+        int i = offset;
+        int end = offset + length;
+        int fullEnd = end - length % 3;
+        int p = dstPos;
+        while (i < fullEnd) {
+            int bits = (src[i++] & 0xff) << 16 | (src[i++] & 0xff) << 8 | (src[i++] & 0xff);
+            dst[p++] = table[bits >>> 18];
+            dst[p++] = table[(bits >>> 12) & 0x3f];
+            dst[p++] = table[(bits >>> 6) & 0x3f];
+            dst[p++] = table[bits & 0x3f];
+        }
+        if (i < end) {
+            int b1 = src[i++] & 0xff;
+            dst[p++] = table[b1 >>> 2];
+            if (i == end) {
+                dst[p++] = table[(b1 & 0x03) << 4];
+                if ((flags & NO_PADDING) == 0) {
+                    dst[p++] = PAD;
+                    dst[p++] = PAD;
+                }
+            } else {
+                int b2 = src[i] & 0xff;
+                dst[p++] = table[(b1 & 0x03) << 4 | b2 >>> 4];
+                dst[p++] = table[(b2 & 0x0f) << 2];
+                if ((flags & NO_PADDING) == 0) {
+                    dst[p++] = PAD;
+                }
+            }
+        }
+        return p - dstPos;
+    }
+
+    /**
+     * 加密到目标字符数组
+     *
+     * @param src    原始数据
+     * @param offset 原始数据起始位置
+     * @param length 原始数据长度
+     * @param dst    目标数组，剩余长度不小于 {@link #encodedLength(int, int)}
+     * @param dstPos 目标数组起始位置
+     * @param flags  {@link #DEFAULT}、{@link #NO_PADDING}、{@link #URL_SAFE}的组合
+     * @return 写入的字符数
+     */
+    public static int encode(byte[] src, int offset, int length, char[] dst, int dstPos, int flags) {
+        byte[] table = (flags & URL_SAFE) != 0 ? ENCODE_CHARS_URL_SAFE : ENCODE_CHARS;
+        int i = offset;
+        int end = offset + length;
+        int fullEnd = end - length % 3;
+        int p = dstPos;
+        while (i < fullEnd) {
+            int bits = (src[i++] & 0xff) << 16 | (src[i++] & 0xff) << 8 | (src[i++] & 0xff);
+            dst[p++] = (char) table[bits >>> 18];
+            dst[p++] = (char) table[(bits >>> 12) & 0x3f];
+            dst[p++] = (char) table[(bits >>> 6) & 0x3f];
+            dst[p++] = (char) table[bits & 0x3f];
+        }
+        if (i < end) {
+            int b1 = src[i++] & 0xff;
+            dst[p++] = (char) table[b1 >>> 2];
+            if (i == end) {
+                dst[p++] = (char) table[(b1 & 0x03) << 4];
+                if ((flags & NO_PADDING) == 0) {
+                    dst[p++] = PAD;
+                    dst[p++] = PAD;
+                }
+            } else {
+                int b2 = src[i] & 0xff;
+                dst[p++] = (char) table[(b1 & 0x03) << 4 | b2 >>> 4];
+                dst[p++] = (char) table[(b2 & 0x0f) << 2];
+                if ((flags & NO_PADDING) == 0) {
+                    dst[p++] = PAD;
+                }
+            }
+        }
+        return p - dstPos;
+    }
+
+    /**
+     * 计算解码后的长度，忽略非Base64字符，遇到填充符时结束
+     *
+     * @param str Base64字符串
+     * @return 解码后的字节数
+     */
+    public static int decodedLength(CharSequence str) {
+        int count = 0;
+        for (int i = 0, len = str.length(); i < len; i++) {
+            char c = str.charAt(i);
+            if (c == PAD) {
                 break;
             }
-            b2 = data[i++] & 0xff;
-            if (i == len) {
-                sb.append(base64EncodeChars[b1 >>> 2]);
-                sb.append(base64EncodeChars[((b1 & 0x03) << 4) | ((b2 & 0xf0) >>> 4)]);
-                sb.append(base64EncodeChars[(b2 & 0x0f) << 2]);
-                sb.append("=");
+            if (c < DECODE_CHARS.length && DECODE_CHARS[c] >= 0) {
+                count++;
+            }
+        }
+        return (int) (count * 6L / 8);
+    }
+
+    /**
+     * 计算解码后的长度，忽略非Base64字符，遇到填充符时结束
+     *
+     * @param src    Base64字符的ASCII字节数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 解码后的字节数
+     */
+    public static int decodedLength(byte[] src, int offset, int length) {
+        int count = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int c = src[i];
+            if (c == PAD) {
                 break;
             }
-            b3 = data[i++] & 0xff;
-            sb.append(base64EncodeChars[b1 >>> 2]);
-            sb.append(base64EncodeChars[((b1 & 0x03) << 4) | ((b2 & 0xf0) >>> 4)]);
-            sb.append(base64EncodeChars[((b2 & 0x0f) << 2) | ((b3 & 0xc0) >>> 6)]);
-            sb.append(base64EncodeChars[b3 & 0x3f]);
+            if (c >= 0 && DECODE_CHARS[c] >= 0) {
+                count++;
+            }
         }
-        return sb.toString();
+        return (int) (count * 6L / 8);
     }
 
     /**
      * 解密
      *
-     * @param str
-     * @return
+     * @param str Base64字符串
+     * @return 原始数据，解码失败时返回空数组
      */
     public static byte[] decode(String str) {
         try {
-            StringBuffer sb = new StringBuffer();
-            byte[] data = null;
-            data = str.getBytes("US-ASCII");
-            int len = data.length;
-            int i = 0;
-            int b1, b2, b3, b4;
-            while (i < len) {
-                do {
-                    b1 = base64DecodeChars[data[i++]];
-                } while (i < len && b1 == -1);
-                if (b1 == -1) {
-                    break;
+            byte[] data = new byte[decodedLength(str)];
+            decode(str, data, 0);
+            return data;
+        } catch (Exception e) {
+            LogUtils.e(e);
+        }
+        return new byte[]{};
+    }
+
+    /**
+     * 解密
+     *
+     * @param src Base64字符的ASCII字节数组
+     * @return 原始数据
+     */
+    public static byte[] decode(byte[] src) {
+        byte[] data = new byte[decodedLength(src, 0, src.length)];
+        decode(src, 0, src.length, data, 0);
+        return data;
+    }
+
+    /**
+     * 解密到目标字节数组
+     *
+     * @param str    Base64字符串
+     * @param dst    目标数组，剩余长度不小于 {@link #decodedLength(CharSequence)}
+     * @param dstPos 目标数组起始位置
+     * @return 写入的字节数
+     */
+    public static int decode(CharSequence str, byte[] dst, int dstPos) {
+        Decoder decoder = new Decoder();
+        return decoder.decode(str, 0, str.length(), dst, dstPos) - dstPos;
+    }
+
+    /**
+     * 解密到目标字节数组
+     *
+     * @param src    Base64字符的ASCII字节数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @param dst    目标数组，剩余长度不小于 {@link #decodedLength(byte[], int, int)}
+     * @param dstPos 目标数组起始位置
+     * @return 写入的字节数
+     */
+    public static int decode(byte[] src, int offset, int length, byte[] dst, int dstPos) {
+        Decoder decoder = new Decoder();
+        return decoder.decode(src, offset, offset + length, dst, dstPos) - dstPos;
+    }
+
+    /**
+     * 解密到ByteBuffer，从其当前位置开始写入并移动位置
+     *
+     * @param str Base64字符串
+     * @param dst 目标缓冲区，剩余长度不小于 {@link #decodedLength(CharSequence)}
+     * @return 写入的字节数
+     * @throws BufferOverflowException 剩余长度不足
+     */
+    public static int decode(CharSequence str, ByteBuffer dst) {
+        int length = decodedLength(str);
+        if (dst.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+        if (dst.hasArray()) {
+            int written = decode(str, dst.array(), dst.arrayOffset() + dst.position());
+            dst.position(dst.position() + written);
+            return written;
+        }
+        if (length == 0) {
+            return 0;
+        }
+        // 直接缓冲区按块解码后批量写入，每块不少于3个字节
+        Decoder decoder = new Decoder();
+        byte[] chunk = new byte[Math.min(STREAM_BUFFER_SIZE, (length + 2) / 3 * 3)];
+        int written = 0;
+        int i = 0;
+        int len = str.length();
+        while (i < len && !decoder.isEnd) {
+            int end = Math.min(len, i + chunk.length / 3 * 4);
+            int count = decoder.decode(str, i, end, chunk, 0);
+            dst.put(chunk, 0, count);
+            written += count;
+            i = end;
+        }
+        return written;
+    }
+
+    /**
+     * 包装输出流，写入的数据经Base64编码后写入原输出流，关闭时写入末尾的字符
+     *
+     * @param out   原输出流
+     * @param flags {@link #DEFAULT}、{@link #NO_PADDING}、{@link #URL_SAFE}的组合
+     * @return 编码输出流，必须调用close才能写入完整的编码
+     */
+    public static OutputStream wrapEncoder(OutputStream out, int flags) {
+        return new EncoderOutputStream(out, flags);
+    }
+
+    /**
+     * 包装输入流，从原输入流读取Base64字符并解码
+     *
+     * @param in 原输入流
+     * @return 解码输入流
+     */
+    public static InputStream wrapDecoder(InputStream in) {
+        return new DecoderInputStream(in);
+    }
+
+    /**
+     * 可分段解码的解码器，在调用之间保存未满8位的数据
+     */
+    private static final class Decoder {
+        private int bits = 0;
+        private int bitCount = 0;
+        private boolean isEnd = false;
+
+        /**
+         * @return 写入结束后的目标数组位置
+         */
+        int decode(CharSequence src, int start, int end, byte[] dst, int dstPos) {
+            int p = dstPos;
+            int i = start;
+            while (i < end) {
+                // 整组4个字符均有效时一次写入3个字节
+                if (bitCount == 0 && i + 4 <= end) {
+                    char c1 = src.charAt(i);
+                    char c2 = src.charAt(i + 1);
+                    char c3 = src.charAt(i + 2);
+                    char c4 = src.charAt(i + 3);
+                    if ((c1 | c2 | c3 | c4) < DECODE_CHARS.length) {
+                        int v = DECODE_CHARS[c1] << 18 | DECODE_CHARS[c2] << 12 | DECODE_CHARS[c3] << 6 | DECODE_CHARS[c4];
+                        if (v >= 0) {
+                            dst[p++] = (byte) (v >> 16);
+                            dst[p++] = (byte) (v >> 8);
+                            dst[p++] = (byte) v;
+                            i += 4;
+                            continue;
+                        }
+                    }
                 }
-                do {
-                    b2 = base64DecodeChars[data[i++]];
-                } while (i < len && b2 == -1);
-                if (b2 == -1) {
+                char c = src.charAt(i++);
+                if (c == PAD) {
+                    isEnd = true;
                     break;
                 }
-                sb.append((char) ((b1 << 2) | ((b2 & 0x30) >>> 4)));
-                do {
-                    b3 = data[i++];
-                    if (b3 == 61) {
-                        return sb.toString().getBytes("iso8859-1");
+                if (c < DECODE_CHARS.length && DECODE_CHARS[c] >= 0) {
+                    p = append(DECODE_CHARS[c], dst, p);
+                }
+            }
+            return p;
+        }
+
+        /**
+         * @return 写入结束后的目标数组位置
+         */
+        int decode(byte[] src, int start, int end, byte[] dst, int dstPos) {
+            int p = dstPos;
+            int i = start;
+            while (i < end) {
+                if (bitCount == 0 && i + 4 <= end) {
+                    int c1 = src[i];
+                    int c2 = src[i + 1];
+                    int c3 = src[i + 2];
+                    int c4 = src[i + 3];
+                    if ((c1 | c2 | c3 | c4) >= 0) {
+                        int v = DECODE_CHARS[c1] << 18 | DECODE_CHARS[c2] << 12 | DECODE_CHARS[c3] << 6 | DECODE_CHARS[c4];
+                        if (v >= 0) {
+                            dst[p++] = (byte) (v >> 16);
+                            dst[p++] = (byte) (v >> 8);
+                            dst[p++] = (byte) v;
+                            i += 4;
+                            continue;
+                        }
                     }
-                    b3 = base64DecodeChars[b3];
-                } while (i < len && b3 == -1);
-                if (b3 == -1) {
+                }
+                int c = src[i++];
+                if (c == PAD) {
+                    isEnd = true;
                     break;
                 }
-                sb.append((char) (((b2 & 0x0f) << 4) | ((b3 & 0x3c) >>> 2)));
-                do {
-                    b4 = data[i++];
-                    if (b4 == 61) {
-                        return sb.toString().getBytes("iso8859-1");
-                    }
-                    b4 = base64DecodeChars[b4];
-                } while (i < len && b4 == -1);
-                if (b4 == -1) {
+                if (c >= 0 && DECODE_CHARS[c] >= 0) {
+                    p = append(DECODE_CHARS[c], dst, p);
+                }
+            }
+            return p;
+        }
+
+        private int append(int value, byte[] dst, int dstPos) {
+            bits = bits << 6 | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                dst[dstPos++] = (byte) (bits >> bitCount);
+                bits &= (1 << bitCount) - 1;
+            }
+            return dstPos;
+        }
+    }
+
+    /**
+     * Base64编码输出流
+     */
+    private static final class EncoderOutputStream extends FilterOutputStream {
+        private final int flags;
+        private final byte[] pending = new byte[3];
+        private final byte[] buffer = new byte[STREAM_BUFFER_SIZE / 3 * 4];
+        private int pendingCount = 0;
+        private boolean isClosed = false;
+
+        EncoderOutputStream(OutputStream out, int flags) {
+            super(out);
+            this.flags = flags;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            pending[pendingCount++] = (byte) b;
+            if (pendingCount == 3) {
+                out.write(buffer, 0, encode(pending, 0, 3, buffer, 0, flags));
+                pendingCount = 0;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (pendingCount > 0 && len > 0) {
+                write(b[off++]);
+                len--;
+            }
+            while (len >= 3) {
+                int count = Math.min(len - len % 3, STREAM_BUFFER_SIZE);
+                out.write(buffer, 0, encode(b, off, count, buffer, 0, flags));
+                off += count;
+                len -= count;
+            }
+            while (len > 0) {
+                write(b[off++]);
+                len--;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            try {
+                if (pendingCount > 0) {
+                    out.write(buffer, 0, encode(pending, 0, pendingCount, buffer, 0, flags));
+                    pendingCount = 0;
+                }
+            } finally {
+                super.close();
+            }
+        }
+    }
+
+    /**
+     * Base64解码输入流
+     */
+    private static final class DecoderInputStream extends FilterInputStream {
+        private final Decoder decoder = new Decoder();
+        private final byte[] input = new byte[STREAM_BUFFER_SIZE / 3 * 4];
+        private final byte[] output = new byte[STREAM_BUFFER_SIZE];
+        private int outputPos = 0;
+        private int outputLimit = 0;
+        private boolean isEof = false;
+
+        DecoderInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (outputPos == outputLimit && !fill()) {
+                return -1;
+            }
+            return output[outputPos++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (outputPos == outputLimit && !fill()) {
+                return -1;
+            }
+            int count = Math.min(len, outputLimit - outputPos);
+            System.arraycopy(output, outputPos, b, off, count);
+            outputPos += count;
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = 0;
+            while (skipped < n && (outputPos < outputLimit || fill())) {
+                int count = (int) Math.min(n - skipped, outputLimit - outputPos);
+                outputPos += count;
+                skipped += count;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return outputLimit - outputPos;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public synchronized void mark(int readlimit) {
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            throw new IOException("mark/reset not supported");
+        }
+
+        /**
+         * 读取并解码下一段数据
+         *
+         * @return 是否有可读取的数据
+         */
+        private boolean fill() throws IOException {
+            outputPos = 0;
+            outputLimit = 0;
+            while (outputLimit == 0 && !isEof) {
+                int count = in.read(input, 0, input.length);
+                if (count < 0) {
+                    isEof = true;
                     break;
                 }
-                sb.append((char) (((b3 & 0x03) << 6) | b4));
+                outputLimit = decoder.decode(input, 0, count, output, 0);
+                if (decoder.isEnd) {
+                    isEof = true;
+                }
             }
-            return sb.toString().getBytes("iso8859-1");
-        } catch (Exception e) {
-            e.printStackTrace();
+            return outputLimit > 0;
         }
-        return new byte[]{};
     }
 }
@@ -0,0 +1,210 @@
+package com.handy.base.utils;
+
+import android.support.v4.util.LongSparseArray;
+
+/**
+ * 以long为键的LRU缓存
+ * <p>键以基本类型保存在 {@link LongSparseArray} 中，读写时不产生装箱对象；访问顺序由双向链表维护，超出容量时淘汰最久未访问的数据。</p>
+ * <p>线程安全，所有方法均加锁。</p>
+ */
+public class LongLruCache<V> {
+    private final LongSparseArray<Node<V>> nodes;
+    private final int maxSize;
+    /**
+     * 最近访问的节点
+     */
+    private Node<V> head;
+    /**
+     * 最久未访问的节点
+     */
+    private Node<V> tail;
+
+    private long memorySize = 0;
+    private int hitCount = 0;
+    private int missCount = 0;
+    private int evictionCount = 0;
+
+    /**
+     * @param maxSize 最大缓存条数
+     */
+    public LongLruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        this.maxSize = maxSize;
+        this.nodes = new LongSparseArray<>(Math.min(maxSize, 64));
+    }
+
+    /**
+     * 获取缓存数据，命中时将其标记为最近访问
+     *
+     * @param key 键
+     * @return 缓存数据，未命中时返回null
+     */
+    public synchronized V get(long key) {
+        Node<V> node = nodes.get(key);
+        if (node == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        moveToHead(node);
+        return node.value;
+    }
+
+    /**
+     * 添加缓存数据，超出容量时淘汰最久未访问的数据
+     *
+     * @param key   键
+     * @param value 值
+     */
+    public synchronized void put(long key, V value) {
+        Node<V> node = nodes.get(key);
+        if (node != null) {
+            memorySize -= node.size;
+            node.value = value;
+            node.size = sizeOf(value);
+            memorySize += node.size;
+            moveToHead(node);
+            return;
+        }
+        node = new Node<>(key, value, sizeOf(value));
+        nodes.put(key, node);
+        memorySize += node.size;
+        linkHead(node);
+        while (nodes.size() > maxSize && tail != null) {
+            evictionCount++;
+            removeNode(tail);
+        }
+    }
+
+    /**
+     * 移除缓存数据
+     *
+     * @param key 键
+     */
+    public synchronized void remove(long key) {
+        Node<V> node = nodes.get(key);
+        if (node != null) {
+            removeNode(node);
+        }
+    }
+
+    /**
+     * 清空缓存数据，不计入淘汰次数
+     */
+    public synchronized void evictAll() {
+        nodes.clear();
+        head = null;
+        tail = null;
+        memorySize = 0;
+    }
+
+    /**
+     * 计算单条数据占用的内存字节数，用于统计 {@link #memorySize()}，默认返回0
+     *
+     * @param value 值
+     * @return 估算的字节数
+     */
+    protected long sizeOf(V value) {
+        return 0;
+    }
+
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * 当前缓存数据估算占用的内存字节数
+     */
+    public synchronized long memorySize() {
+        return memorySize;
+    }
+
+    public synchronized int hitCount() {
+        return hitCount;
+    }
+
+    public synchronized int missCount() {
+        return missCount;
+    }
+
+    public synchronized int evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 缓存命中率
+     *
+     * @return 0～1，尚未访问时返回0
+     */
+    public synchronized float hitRate() {
+        int accessCount = hitCount + missCount;
+        return accessCount == 0 ? 0 : (float) hitCount / accessCount;
+    }
+
+    private void removeNode(Node<V> node) {
+        nodes.remove(node.key);
+        memorySize -= node.size;
+        unlink(node);
+    }
+
+    private void moveToHead(Node<V> node) {
+        if (node != head) {
+            unlink(node);
+            linkHead(node);
+        }
+    }
+
+    private void linkHead(Node<V> node) {
+        node.prev = null;
+        node.next = head;
+        if (head != null) {
+            head.prev = node;
+        }
+        head = node;
+        if (tail == null) {
+            tail = node;
+        }
+    }
+
+    private void unlink(Node<V> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            tail = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "LongLruCache[size=" + nodes.size() + ",maxSize=" + maxSize + ",memorySize=" + memorySize
+                + ",hits=" + hitCount + ",misses=" + missCount + ",evictions=" + evictionCount
+                + ",hitRate=" + (int) (hitRate() * 100) + "%]";
+    }
+
+    private static class Node<V> {
+        private final long key;
+        private V value;
+        private long size;
+        private Node<V> prev;
+        private Node<V> next;
+
+        Node(long key, V value, long size) {
+            this.key = key;
+            this.value = value;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.handy.base.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * SQLite语句耗时统计
+ *
+ * @description 通过 {@link SQLiteUtils#setProfiler(SQLiteProfiler)} 开启，按SQL语句统计执行次数、耗时分布及返回行数，
+ * 以及打开、关闭数据库的耗时；统计使用原子计数，记录时不加锁。未开启时SQLiteUtils不会读取系统时间，也不会产生任何统计开销。
+ */
+public class SQLiteProfiler {
+    /**
+     * 默认慢查询阈值，单位：毫秒
+     */
+    public static final long DEFAULT_SLOW_QUERY_MILLIS = 100;
+    /**
+     * 默认最多统计的语句数
+     */
+    public static final int DEFAULT_MAX_STATEMENTS = 200;
+    /**
+     * 打开数据库的统计项名称
+     */
+    public static final String OPEN = "[open]";
+    /**
+     * 关闭数据库的统计项名称
+     */
+    public static final String CLOSE = "[close]";
+    /**
+     * 超出最多统计语句数后，其余语句合并统计的统计项名称
+     */
+    public static final String OTHERS = "[others]";
+    /**
+     * 耗时分布桶数，第i个桶统计耗时小于2^i微秒的语句，最后一个桶统计其余所有语句
+     */
+    private static final int BUCKET_COUNT = 24;
+
+    private final ConcurrentMap<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private volatile long slowQueryMillis;
+    private final int maxStatements;
+
+    public SQLiteProfiler() {
+        this(DEFAULT_SLOW_QUERY_MILLIS, DEFAULT_MAX_STATEMENTS);
+    }
+
+    /**
+     * @param slowQueryMillis 慢查询阈值，单位：毫秒，耗时不小于阈值的语句输出警告日志及执行计划
+     * @param maxStatements   最多统计的语句数，避免拼接了参数值的SQL语句无限增长，超出后合并到 {@link #OTHERS}
+     */
+    public SQLiteProfiler(long slowQueryMillis, int maxStatements) {
+        this.slowQueryMillis = slowQueryMillis;
+        this.maxStatements = maxStatements;
+    }
+
+    /**
+     * 记录一次语句执行
+     *
+     * @param sql          SQL语句或统计项名称
+     * @param elapsedNanos 耗时，单位：纳秒
+     * @param rows         返回或受影响的行数
+     * @return 是否为慢查询
+     */
+    public boolean record(String sql, long elapsedNanos, int rows) {
+        StatementStats stats = statements.get(sql);
+        if (stats == null) {
+            String name = statements.size() < maxStatements ? sql : OTHERS;
+            stats = new StatementStats(name);
+            StatementStats previous = statements.putIfAbsent(name, stats);
+            if (previous != null) {
+                stats = previous;
+            }
+        }
+        stats.record(elapsedNanos, rows);
+        return elapsedNanos >= TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+    }
+
+    /**
+     * 获取统计快照，按总耗时降序排列
+     */
+    public List<StatementStats> getStatementStats() {
+        List<StatementStats> list = new ArrayList<>(statements.values());
+        Collections.sort(list, new Comparator<StatementStats>() {
+            @Override
+            public int compare(StatementStats o1, StatementStats o2) {
+                long total1 = o1.getTotalNanos();
+                long total2 = o2.getTotalNanos();
+                return total1 < total2 ? 1 : (total1 == total2 ? 0 : -1);
+            }
+        });
+        return list;
+    }
+
+    /**
+     * 获取统计快照的文本形式，可直接添加到 {@link com.handy.base.config.BuglyConfig#getCrashFollowInfo()}，
+     * 或通过 {@link com.handy.base.config.BuglyConfig#setSQLiteProfiler(SQLiteProfiler)} 在发生Crash时自动上报
+     *
+     * @param limit 最多包含的统计项数，按总耗时降序截取
+     * @return 键为"SQLite-序号"，值为统计项的文本描述
+     */
+    public HashMap<String, String> snapshot(int limit) {
+        HashMap<String, String> snapshot = new HashMap<>();
+        List<StatementStats> list = getStatementStats();
+        for (int i = 0; i < list.size() && i < limit; i++) {
+            snapshot.put("SQLite-" + (i + 1), list.get(i).toString());
+        }
+        return snapshot;
+    }
+
+    /**
+     * 清空统计数据
+     */
+    public void reset() {
+        statements.clear();
+    }
+
+    public long getSlowQueryMillis() {
+        return slowQueryMillis;
+    }
+
+    public SQLiteProfiler setSlowQueryMillis(long slowQueryMillis) {
+        this.slowQueryMillis = slowQueryMillis;
+        return this;
+    }
+
+    /**
+     * 单条语句的统计数据
+     */
+    public static class StatementStats {
+        private final String sql;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+        StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        void record(long elapsedNanos, int rowCount) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(elapsedNanos);
+            rows.addAndGet(rowCount);
+            long max = maxNanos.get();
+            while (elapsedNanos > max && !maxNanos.compareAndSet(max, elapsedNanos)) {
+                max = maxNanos.get();
+            }
+            long micros = elapsedNanos / 1000;
+            int bucket = 64 - Long.numberOfLeadingZeros(micros);
+            buckets.incrementAndGet(Math.min(bucket, BUCKET_COUNT - 1));
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.get();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        public long getRows() {
+            return rows.get();
+        }
+
+        public double getAverageMillis() {
+            long currentCount = count.get();
+            return currentCount == 0 ? 0 : totalNanos.get() / 1e6 / currentCount;
+        }
+
+        /**
+         * 获取耗时分位数的上限估计值，精度为耗时所在的2的幂次区间
+         *
+         * @param percentile 分位数，如：0.5、0.95、0.99
+         * @return 耗时上限，单位：毫秒
+         */
+        public double getPercentileMillis(double percentile) {
+            long[] counts = new long[BUCKET_COUNT];
+            long total = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            long target = (long) Math.ceil(total * percentile);
+            long accumulated = 0;
+            for (int i = 0; i < BUCKET_COUNT - 1; i++) {
+                accumulated += counts[i];
+                if (accumulated >= target && accumulated > 0) {
+                    return (1L << i) / 1000.0;
+                }
+            }
+            return maxNanos.get() / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "count=%d avg=%.2fms p50<=%.2fms p95<=%.2fms max=%.2fms rows=%d : %s",
+                    getCount(), getAverageMillis(), getPercentileMillis(0.5), getPercentileMillis(0.95), getMaxNanos() / 1e6, getRows(), sql);
+        }
+    }
+}
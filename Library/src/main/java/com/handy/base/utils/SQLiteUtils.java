@@ -3,28 +3,84 @@ package com.handy.base.utils;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.CursorWrapper;
+import android.database.MatrixCursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteQueryBuilder;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Build;
+import android.util.LruCache;
 
+import com.blankj.utilcode.util.LogUtils;
 import com.blankj.utilcode.util.ObjectUtils;
+import com.handy.base.config.SQLiteConfig;
+import com.handy.base.utils.androidutilcode.PinyinUtils;
+import com.handy.base.utils.androidutilcode.ThreadPoolRegistry;
+import com.handy.base.utils.androidutilcode.ThreadPoolUtils;
+import com.handy.base.utils.bean.SQLIndex;
 import com.handy.base.utils.bean.SQLTable;
 
+import org.reactivestreams.Publisher;
+
+import java.io.Closeable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.reactivex.Emitter;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.functions.BiConsumer;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
 
 /**
  * 数据库公共类，提供基本数据库操作
  * <p>
+ * 通过 {@link SQLiteConfig#setEncryptionKey(char[])} 设置密钥后使用SQLCipher打开整库加密的数据库，其余用法不变。
+ * <p>
  * Created by LiuJie on 2016/10/25.
  */
 public class SQLiteUtils {
+    /**
+     * 批量插入时默认每个事务提交的记录数
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    /**
+     * 预编译语句缓存默认容量
+     */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 25;
+    /**
+     * 全文检索结果中的匹配片段列名，匹配词以&lt;b&gt;&lt;/b&gt;包裹
+     */
+    public static final String SEARCH_SNIPPET = "fts_snippet";
+    /**
+     * 全文检索结果中的匹配词数列名
+     */
+    public static final String SEARCH_RANK = "fts_rank";
+
     private static SQLiteUtils sqLiteUtils = null;
 
     private Context context;
     /**
-     * 查询游标对象
+     * 各线程当前持有的查询游标对象，线程之间互不影响，调用 {@link #close()} 只关闭当前线程的游标
      */
-    private Cursor cursor;
+    private final ThreadLocal<Cursor> cursor = new ThreadLocal<>();
     /**
      * 数据库版本
      */
@@ -33,18 +89,67 @@ public class SQLiteUtils {
      * 默认数据库
      */
     private String DB_NAME = "HandyBase.db";
+    /**
+     * 数据库连接配置，包括WAL模式及PRAGMA参数
+     */
+    private SQLiteConfig sqLiteConfig = new SQLiteConfig();
     /**
      * 由SQLiteOpenHelper继承过来
      */
     private DatabaseHelper databaseHelper = null;
     /**
-     * 执行open()打开数据库时，保存返回的数据库对象
+     * 执行open()打开数据库时，保存返回的数据库对象，加密数据库时为null
      */
     private SQLiteDatabase sqLiteDatabase = null;
+    /**
+     * 配置了加密密钥时使用的SQLCipher数据库帮助类及数据库对象
+     */
+    private CipherDatabaseHelper cipherDatabaseHelper = null;
+    private net.sqlcipher.database.SQLiteDatabase cipherDatabase = null;
+    /**
+     * 当前打开的数据库连接，所有操作均通过该对象执行，屏蔽系统SQLite与SQLCipher的差异
+     */
+    private Database database = null;
     /**
      * 数据库表对象数据集合
      */
     private List<SQLTable> sqLiteTables = new ArrayList<>();
+    /**
+     * 是否保持数据库长连接，开启后各操作方法执行完毕不再关闭数据库，需调用 {@link #shutdown()} 关闭
+     */
+    private boolean isKeepAlive = false;
+    /**
+     * 通过 {@link #acquire()} 持有数据库连接的引用计数，大于0时各操作方法执行完毕不会关闭数据库
+     */
+    private int referenceCount = 0;
+    /**
+     * 按语句结构缓存的预编译更新语句，随数据库连接关闭而释放
+     */
+    private StatementCache statementCache = new StatementCache(DEFAULT_STATEMENT_CACHE_SIZE);
+    /**
+     * 按语句结构缓存的查询语句，相同的SQL可命中数据库连接内部的预编译语句缓存
+     */
+    private LruCache<String, String> selectionCache = new LruCache<>(DEFAULT_STATEMENT_CACHE_SIZE);
+    /**
+     * 数据表变更通知，每次发射一次已提交的写操作所涉及的表名集合
+     */
+    private final Subject<Set<String>> tableTrigger = PublishSubject.<Set<String>>create().toSerialized();
+    /**
+     * 各线程通过 {@link #beginTransaction()} 开启的事务状态
+     */
+    private final ThreadLocal<TransactionState> transactionState = new ThreadLocal<>();
+    /**
+     * 按表名保存的 {@link #findById(String, String, int, String[])} 内存行缓存
+     */
+    private final Map<String, RowCache> rowCaches = new ConcurrentHashMap<>();
+    /**
+     * 语句耗时统计，默认：null-不统计
+     */
+    private volatile SQLiteProfiler profiler = null;
+    /**
+     * SQLCipher本地库是否已加载，进程内只加载一次
+     */
+    private static boolean isCipherLibsLoaded = false;
 
     private SQLiteUtils(Context context) {
         this.context = context;
@@ -79,44 +184,349 @@ public class SQLiteUtils {
         return new SQLiteUtils(context, DB_VERSION, DB_NAME);
     }
 
+    /**
+     * 构造函数
+     *
+     * @param context      上下文
+     * @param DB_NAME      数据库名称
+     * @param DB_VERSION   数据库版本号
+     * @param sqLiteConfig 数据库连接配置
+     */
+    public static SQLiteUtils getInstance(Context context, int DB_VERSION, String DB_NAME, SQLiteConfig sqLiteConfig) {
+        SQLiteUtils sqLiteUtils = new SQLiteUtils(context, DB_VERSION, DB_NAME);
+        sqLiteUtils.sqLiteConfig = sqLiteConfig;
+        return sqLiteUtils;
+    }
+
     /**
      * 添加或更新数据库中的表
      *
      * @param sqlTable 数据库表
      */
     public void insertSQLTable(SQLTable sqlTable) {
-        if (sqLiteTables.size() == 0) {
-            sqLiteTables.add(sqlTable);
-        } else if (sqLiteTables.size() > 0) {
-            if (sqLiteTables.contains(sqlTable)) {
-                sqLiteTables.remove(sqlTable);
-                sqLiteTables.add(sqlTable);
-            }
+        if (sqLiteTables.contains(sqlTable)) {
+            sqLiteTables.remove(sqlTable);
+        }
+        sqLiteTables.add(sqlTable);
+    }
+
+    /**
+     * 关闭默认数据库单例持有的长连接
+     * <p>Android不保证进程退出前回调 {@link android.app.Application#onTerminate()}，不要依赖其关闭数据库；
+     * 进程被回收时连接随之释放，已提交的事务不会丢失，需要提前释放时（如退出登录后）主动调用。</p>
+     */
+    public static void shutdownInstance() {
+        if (sqLiteUtils != null) {
+            sqLiteUtils.shutdown();
         }
     }
 
     /**
      * 打开数据库
      */
-    public void open() {
-        if (databaseHelper == null || sqLiteDatabase == null) {
-            this.databaseHelper = new DatabaseHelper(context);
-            sqLiteDatabase = databaseHelper.getWritableDatabase();
+    public synchronized void open() {
+        if (database == null) {
+            SQLiteProfiler activeProfiler = profiler;
+            long startNanos = activeProfiler == null ? 0 : System.nanoTime();
+            if (isEncrypted()) {
+                loadCipherLibs(context);
+                cipherDatabaseHelper = new CipherDatabaseHelper(context, new CipherConfigHook(sqLiteConfig));
+                // SQLCipher使用后可能清空传入的数组，传入副本以便重新打开
+                char[] encryptionKey = sqLiteConfig.getEncryptionKey().clone();
+                try {
+                    cipherDatabase = cipherDatabaseHelper.getWritableDatabase(encryptionKey);
+                } finally {
+                    Arrays.fill(encryptionKey, '\0');
+                }
+                database = new CipherDatabase(cipherDatabase);
+            } else {
+                this.databaseHelper = new DatabaseHelper(context);
+                sqLiteDatabase = databaseHelper.getWritableDatabase();
+                database = new PlainDatabase(sqLiteDatabase);
+            }
+            if (activeProfiler != null) {
+                profile(activeProfiler, startNanos, SQLiteProfiler.OPEN, null, 0);
+            }
         }
     }
 
+    private static synchronized void loadCipherLibs(Context context) {
+        if (!isCipherLibsLoaded) {
+            net.sqlcipher.database.SQLiteDatabase.loadLibs(context);
+            isCipherLibsLoaded = true;
+        }
+    }
+
+    /**
+     * 是否配置了加密密钥
+     */
+    private boolean isEncrypted() {
+        return sqLiteConfig != null && sqLiteConfig.isEncrypted();
+    }
+
+    /**
+     * 是否在操作方法执行完毕后保持数据库连接，加密数据库打开时需要派生密钥，始终保持连接
+     */
+    private boolean isKeepConnection() {
+        return isKeepAlive || isEncrypted();
+    }
+
     /**
      * 关闭数据库
+     * <p>只关闭当前线程通过查询方法获得的游标，其他线程正在使用的游标不受影响。</p>
+     * <p>长连接模式或仍有其他引用（{@link #acquire()}、其他线程未关闭的游标）时数据库连接保持打开。</p>
+     */
+    public synchronized void close() {
+        Cursor threadCursor = cursor.get();
+        if (null != threadCursor) {
+            threadCursor.close();
+            cursor.remove();
+            release();
+        } else if (!isKeepConnection() && referenceCount == 0) {
+            closeDatabase();
+        }
+    }
+
+    /**
+     * 保存当前线程的查询游标，游标关闭前持有一次数据库连接引用，由 {@link #close()} 释放
+     */
+    private synchronized Cursor holdCursor(Cursor newCursor) {
+        if (null == cursor.get()) {
+            referenceCount++;
+        }
+        cursor.set(newCursor);
+        return newCursor;
+    }
+
+    /**
+     * 持有数据库连接，在对应的 {@link #release()} 调用之前各操作方法执行完毕不会关闭数据库
+     * <p>适用于批量操作，如循环插入大量数据时避免每次调用都重新打开数据库文件。</p>
+     */
+    public synchronized void acquire() {
+        referenceCount++;
+        open();
+    }
+
+    /**
+     * 释放 {@link #acquire()} 持有的数据库连接，引用全部释放且未开启长连接模式时关闭数据库
+     */
+    public synchronized void release() {
+        if (referenceCount > 0) {
+            referenceCount--;
+        }
+        if (!isKeepConnection() && referenceCount == 0) {
+            closeDatabase();
+        }
+    }
+
+    /**
+     * 强制关闭查询游标及数据库连接，忽略长连接模式及引用计数
+     */
+    public synchronized void shutdown() {
+        referenceCount = 0;
+        Cursor threadCursor = cursor.get();
+        if (null != threadCursor) {
+            threadCursor.close();
+            cursor.remove();
+        }
+        closeDatabase();
+    }
+
+    /**
+     * 提交写操作到串行写线程执行
+     * <p>所有通过此方法提交的写操作按提交顺序在同一线程中依次执行，调用线程不会被写锁阻塞。
+     * 配合 {@link SQLiteConfig#setWriteAheadLogging(boolean)} 开启WAL模式后，SQLiteDatabase内部会维护多个只读连接，
+     * 其他线程的查询可与写操作并行执行。</p>
+     *
+     * @param task 写操作任务
+     * @param <T>  泛型
+     * @return 表示任务等待完成的Future
+     */
+    public <T> Future<T> submitWrite(final Callable<T> task) {
+        return getWriteExecutor().submit(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                acquire();
+                try {
+                    return task.call();
+                } finally {
+                    release();
+                }
+            }
+        });
+    }
+
+    /**
+     * 提交写操作到串行写线程执行
+     *
+     * @param task 写操作任务
+     * @return 表示任务等待完成的Future, 该Future的{@code get}方法在成功完成时将会返回null结果。
+     */
+    public Future<?> submitWrite(final Runnable task) {
+        return submitWrite(Executors.callable(task));
+    }
+
+    /**
+     * 开启事务，支持嵌套
+     * <p>事务内通过本类执行的写操作不会立即发出数据表变更通知，最外层事务成功提交后合并为一次通知；事务回滚时不通知。</p>
+     * <pre>
+     * sqLiteUtils.beginTransaction();
+     * try {
+     *     ......
+     *     sqLiteUtils.setTransactionSuccessful();
+     * } finally {
+     *     sqLiteUtils.endTransaction();
+     * }
+     * </pre>
+     */
+    public void beginTransaction() {
+        acquire();
+        try {
+            database.beginTransaction();
+        } catch (Exception e) {
+            release();
+            throw e;
+        }
+        TransactionState state = transactionState.get();
+        if (state == null) {
+            state = new TransactionState();
+            transactionState.set(state);
+        }
+        state.depth++;
+        state.isMarkedSuccessful = false;
+    }
+
+    /**
+     * 标记当前事务执行成功
+     */
+    public void setTransactionSuccessful() {
+        database.setTransactionSuccessful();
+        TransactionState state = transactionState.get();
+        if (state != null) {
+            state.isMarkedSuccessful = true;
+        }
+    }
+
+    /**
+     * 结束当前事务，最外层事务结束且所有层级均标记成功时提交并发出数据表变更通知
+     */
+    public void endTransaction() {
+        TransactionState state = transactionState.get();
+        try {
+            database.endTransaction();
+        } finally {
+            if (state != null) {
+                if (!state.isMarkedSuccessful) {
+                    state.isRolledBack = true;
+                }
+                state.isMarkedSuccessful = false;
+                if (--state.depth == 0) {
+                    transactionState.remove();
+                    // 事务期间其他线程可能读取并缓存了提交前的数据，事务内的读取也可能缓存了被回滚的数据
+                    for (String tableName : state.tables) {
+                        invalidateRowCache(tableName);
+                    }
+                    if (!state.isRolledBack && !state.tables.isEmpty()) {
+                        tableTrigger.onNext(state.tables);
+                    }
+                }
+            }
+            release();
+        }
+    }
+
+    /**
+     * 发出数据表变更通知，在 {@link #beginTransaction()} 开启的事务内调用时延迟到事务提交后合并通知
+     * <p>本类的插入、删除、更新方法会自动调用，通过 {@link #executeSql(String)} 或直接操作数据库对象修改数据时需手动调用。</p>
+     *
+     * @param tableNames 发生变更的表名
+     */
+    public void notifyTableChanged(String... tableNames) {
+        for (String tableName : tableNames) {
+            invalidateRowCache(tableName);
+        }
+        dispatchTableChanged(tableNames);
+    }
+
+    private void dispatchTableChanged(String... tableNames) {
+        TransactionState state = transactionState.get();
+        if (state != null) {
+            Collections.addAll(state.tables, tableNames);
+        } else {
+            tableTrigger.onNext(new HashSet<>(Arrays.asList(tableNames)));
+        }
+    }
+
+    /**
+     * 监听数据表变更
+     *
+     * @param tableNames 监听的表名，任一表发生变更时发射
+     * @return 每次发射一次已提交的写操作所涉及的表名集合，在执行写操作的线程中发射
+     */
+    public Observable<Set<String>> observeTables(final String... tableNames) {
+        final List<String> observedTables = Arrays.asList(tableNames);
+        return tableTrigger.filter(new Predicate<Set<String>>() {
+            @Override
+            public boolean test(Set<String> changedTables) throws Exception {
+                for (String tableName : observedTables) {
+                    if (changedTables.contains(tableName)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * 创建随数据表变更自动重新执行的查询
+     * <p>订阅时立即查询一次，之后只在所监听的表提交变更后重新查询，可替代界面每次恢复时的轮询查询。</p>
+     * <p>首次查询在订阅线程执行，后续查询在执行写操作的线程执行，通常需配合 observeOn 切换线程。</p>
+     *
+     * @param tableNames    查询所依赖的表名
+     * @param sql           查询SQL语句
+     * @param selectionArgs 查询参数
+     * @param rowMapper     行数据转换器
+     * @param <T>           泛型
+     * @return 每次查询的结果集合
+     */
+    public <T> Observable<List<T>> createQuery(String[] tableNames, final String sql, final String[] selectionArgs, final RowMapper<T> rowMapper) {
+        return observeTables(tableNames)
+                .startWith(Collections.<String>emptySet())
+                .map(new Function<Set<String>, List<T>>() {
+                    @Override
+                    public List<T> apply(Set<String> changedTables) throws Exception {
+                        return findList(sql, selectionArgs, rowMapper);
+                    }
+                });
+    }
+
+    /**
+     * 写操作在进程内共享的数据库串行线程中执行，本类不关闭该线程池，需要关闭时由调用方调用 {@link ThreadPoolRegistry#shutdownAll(long, java.util.concurrent.TimeUnit)}
      */
-    public void close() {
-        if (null != databaseHelper) {
-            databaseHelper.close();
+    private ThreadPoolUtils getWriteExecutor() {
+        return ThreadPoolRegistry.db();
+    }
+
+    private void closeDatabase() {
+        statementCache.evictAll();
+        if (null != database) {
+            SQLiteProfiler activeProfiler = profiler;
+            long startNanos = activeProfiler == null ? 0 : System.nanoTime();
+            if (null != databaseHelper) {
+                databaseHelper.close();
+            }
+            if (null != cipherDatabaseHelper) {
+                cipherDatabaseHelper.close();
+            }
+            if (activeProfiler != null) {
+                profile(activeProfiler, startNanos, SQLiteProfiler.CLOSE, null, 0);
+            }
             databaseHelper = null;
             sqLiteDatabase = null;
-        }
-        if (null != cursor) {
-            cursor.close();
-            cursor = null;
+            cipherDatabaseHelper = null;
+            cipherDatabase = null;
+            database = null;
         }
     }
 
@@ -127,11 +537,17 @@ public class SQLiteUtils {
      */
     public void executeSql(String sql) {
         try {
-            open();
-            sqLiteDatabase.execSQL(sql);
-            close();
+            acquire();
+            SQLiteProfiler activeProfiler = profiler;
+            long startNanos = activeProfiler == null ? 0 : System.nanoTime();
+            database.execSQL(sql);
+            if (activeProfiler != null) {
+                profile(activeProfiler, startNanos, sql, null, 0);
+            }
         } catch (Exception e) {
             throw e;
+        } finally {
+            release();
         }
     }
 
@@ -146,13 +562,152 @@ public class SQLiteUtils {
      */
     public long insert(String tableName, String nullColumn, ContentValues contentValues) {
         try {
-            open();
-            return sqLiteDatabase.insert(tableName, nullColumn, contentValues);
+            acquire();
+            SQLiteProfiler activeProfiler = profiler;
+            long startNanos = activeProfiler == null ? 0 : System.nanoTime();
+            long id = database.insert(tableName, nullColumn, prepareValues(getSQLTable(tableName), contentValues));
+            if (activeProfiler != null) {
+                profile(activeProfiler, startNanos, "[insert] " + tableName, null, id != -1 ? 1 : 0);
+            }
+            if (id != -1) {
+                invalidateRowCache(tableName);
+                dispatchTableChanged(tableName);
+            }
+            return id;
         } catch (Exception e) {
             throw e;
         } finally {
-            close();
+            release();
+        }
+    }
+
+    /**
+     * 批量插入数据，默认每 {@link #DEFAULT_BATCH_SIZE} 条数据提交一次事务
+     *
+     * @param tableName         表名
+     * @param contentValuesList 名值对集合
+     * @return 成功插入的记录数
+     */
+    public int insertAll(String tableName, List<ContentValues> contentValuesList) {
+        return insertAll(tableName, contentValuesList.iterator(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * 批量插入数据
+     * <p>每 batchSize 条数据包裹在同一个事务中提交，相同列结构的数据复用同一条预编译的插入语句，只重新绑定参数。</p>
+     * <p>某一批次插入失败时该批次回滚并抛出异常，之前已提交的批次不受影响。</p>
+     *
+     * @param tableName 表名
+     * @param iterator  名值对迭代器，可边读取边插入，无需一次性加载全部数据
+     * @param batchSize 每个事务提交的记录数
+     * @return 成功插入的记录数
+     */
+    public int insertAll(String tableName, Iterator<ContentValues> iterator, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be greater than 0");
+        }
+        int count = 0;
+        Map<String, Statement> statements = new HashMap<>();
+        SQLTable sqlTable = getSQLTable(tableName);
+        SQLiteProfiler activeProfiler = profiler;
+        long startNanos = activeProfiler == null ? 0 : System.nanoTime();
+        acquire();
+        try {
+            while (iterator.hasNext()) {
+                database.beginTransaction();
+                try {
+                    for (int i = 0; i < batchSize && iterator.hasNext(); i++) {
+                        if (insertRow(tableName, prepareValues(sqlTable, iterator.next()), statements) != -1) {
+                            count++;
+                        }
+                    }
+                    database.setTransactionSuccessful();
+                } finally {
+                    database.endTransaction();
+                }
+            }
+        } finally {
+            for (Statement statement : statements.values()) {
+                statement.close();
+            }
+            if (count > 0) {
+                invalidateRowCache(tableName);
+                dispatchTableChanged(tableName);
+            }
+            if (activeProfiler != null) {
+                profile(activeProfiler, startNanos, "[insertAll] " + tableName, null, count);
+            }
+            release();
+        }
+        return count;
+    }
+
+    /**
+     * 以流的方式批量插入数据
+     * <p>上游数据按 batchSize 分组，每组在一个事务中插入，订阅期间保持数据库连接打开。</p>
+     *
+     * @param tableName 表名
+     * @param source    名值对数据流
+     * @param batchSize 每个事务提交的记录数
+     * @return 每个批次提交后发射该批次成功插入的记录数
+     */
+    public Flowable<Integer> insertAll(final String tableName, final Flowable<ContentValues> source, final int batchSize) {
+        return Flowable.using(new Callable<SQLiteUtils>() {
+            @Override
+            public SQLiteUtils call() throws Exception {
+                acquire();
+                return SQLiteUtils.this;
+            }
+        }, new Function<SQLiteUtils, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(final SQLiteUtils utils) throws Exception {
+                return source.buffer(batchSize).map(new Function<List<ContentValues>, Integer>() {
+                    @Override
+                    public Integer apply(List<ContentValues> contentValuesList) throws Exception {
+                        return utils.insertAll(tableName, contentValuesList.iterator(), batchSize);
+                    }
+                });
+            }
+        }, new Consumer<SQLiteUtils>() {
+            @Override
+            public void accept(SQLiteUtils utils) throws Exception {
+                utils.release();
+            }
+        });
+    }
+
+    /**
+     * 使用预编译语句插入一条数据，语句按列结构缓存在 statements 中
+     */
+    private long insertRow(String tableName, ContentValues contentValues, Map<String, Statement> statements) {
+        if (contentValues == null || contentValues.size() == 0) {
+            return database.insert(tableName, null, contentValues);
+        }
+        String[] columns = contentValues.keySet().toArray(new String[contentValues.size()]);
+        Arrays.sort(columns);
+        StringBuilder shape = new StringBuilder();
+        for (String column : columns) {
+            shape.append(column).append(',');
+        }
+        Statement statement = statements.get(shape.toString());
+        if (statement == null) {
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
+            for (int i = 0; i < columns.length; i++) {
+                sql.append(i == 0 ? "" : ",").append(columns[i]);
+            }
+            sql.append(") VALUES (");
+            for (int i = 0; i < columns.length; i++) {
+                sql.append(i == 0 ? "?" : ",?");
+            }
+            sql.append(")");
+            statement = database.compileStatement(sql.toString());
+            statements.put(shape.toString(), statement);
+        }
+        statement.clearBindings();
+        for (int i = 0; i < columns.length; i++) {
+            bindObject(statement, i + 1, contentValues.get(columns[i]));
         }
+        return statement.executeInsert();
     }
 
     /**
@@ -166,12 +721,23 @@ public class SQLiteUtils {
      */
     public long delete(String tableName, String key, int id) {
         try {
-            open();
-            return sqLiteDatabase.delete(tableName, key + " = " + id, null);
+            acquire();
+            SQLiteProfiler activeProfiler = profiler;
+            long startNanos = activeProfiler == null ? 0 : System.nanoTime();
+            String[] whereArgs = new String[]{String.valueOf(id)};
+            int count = database.delete(tableName, key + " = ?", whereArgs);
+            if (activeProfiler != null) {
+                profile(activeProfiler, startNanos, "DELETE FROM " + tableName + " WHERE " + key + " = ?", whereArgs, count);
+            }
+            if (count > 0) {
+                removeCachedRow(tableName, key, id);
+                dispatchTableChanged(tableName);
+            }
+            return count;
         } catch (Exception e) {
             throw e;
         } finally {
-            close();
+            release();
         }
     }
 
@@ -184,11 +750,12 @@ public class SQLiteUtils {
      */
     public Cursor findBySQL(String sql, String[] selectionArgs) {
         try {
-            open();
-            cursor = sqLiteDatabase.rawQuery(sql, selectionArgs);
-            return cursor;
+            acquire();
+            return holdCursor(rawQuery(sql, selectionArgs));
         } catch (Exception e) {
             throw e;
+        } finally {
+            release();
         }
     }
 
@@ -202,11 +769,12 @@ public class SQLiteUtils {
      */
     public Cursor findAll(String tableName, String[] columns) {
         try {
-            open();
-            cursor = sqLiteDatabase.query(tableName, columns, null, null, null, null, null);
-            return cursor;
+            acquire();
+            return holdCursor(query(tableName, columns, null, null, null));
         } catch (Exception e) {
             throw e;
+        } finally {
+            release();
         }
     }
 
@@ -221,12 +789,90 @@ public class SQLiteUtils {
      * @throws Exception
      */
     public Cursor findById(String tableName, String key, int id, String[] columns) {
+        RowCache rowCache = rowCaches.get(tableName);
+        boolean isCacheable = rowCache != null && rowCache.key.equals(key);
+        if (isCacheable) {
+            // 缓存命中时直接返回内存数据，不打开数据库连接
+            CachedRow cachedRow = rowCache.get(id);
+            if (cachedRow != null) {
+                return holdCursor(cachedRow.toCursor(columns));
+            }
+        }
         try {
-            open();
-            cursor = sqLiteDatabase.query(tableName, columns, key + " = " + id, null, null, null, null);
-            return cursor;
-        } catch (Exception e) {
-            throw e;
+            acquire();
+            // 主键值作为参数绑定，相同结构的查询共用同一条语句及同一个统计项
+            String[] selectionArgs = new String[]{String.valueOf(id)};
+            if (!isCacheable) {
+                return holdCursor(query(tableName, columns, key + " = ?", selectionArgs, null));
+            }
+            // 查询期间其他线程可能修改并使缓存失效，只有失效计数未变化时才缓存查询结果，避免写入过期数据
+            long generation = rowCache.getGeneration();
+            CachedRow cachedRow;
+            Cursor rowCursor = query(tableName, null, key + " = ?", selectionArgs, null);
+            try {
+                if (!rowCursor.moveToFirst()) {
+                    return holdCursor(new MatrixCursor(columns != null ? columns : rowCursor.getColumnNames(), 0));
+                }
+                cachedRow = new CachedRow(rowCursor);
+            } finally {
+                rowCursor.close();
+            }
+            rowCache.putIfUnchanged(id, cachedRow, generation);
+            return holdCursor(cachedRow.toCursor(columns));
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 为数据表开启 {@link #findById(String, String, int, String[])} 的内存行缓存
+     * <p>开启后按主键查询优先从内存读取，未命中时查询整行数据并缓存；通过本类插入、删除、更新数据或调用 {@link #notifyTableChanged(String...)} 时缓存自动失效。</p>
+     * <p>直接操作数据库对象修改数据后需调用 {@link #notifyTableChanged(String...)}，否则可能读取到过期数据。</p>
+     *
+     * @param tableName 表名
+     * @param key       主键名，只有使用该主键的查询才会使用缓存
+     * @param maxRows   最大缓存行数
+     */
+    public SQLiteUtils enableRowCache(String tableName, String key, int maxRows) {
+        rowCaches.put(tableName, new RowCache(key, maxRows));
+        return this;
+    }
+
+    /**
+     * 关闭数据表的内存行缓存
+     *
+     * @param tableName 表名
+     */
+    public SQLiteUtils disableRowCache(String tableName) {
+        rowCaches.remove(tableName);
+        return this;
+    }
+
+    /**
+     * 获取数据表的内存行缓存，可查询命中率、淘汰次数及内存占用
+     *
+     * @param tableName 表名
+     * @return 行缓存，未开启时返回null
+     */
+    public LongLruCache<?> getRowCache(String tableName) {
+        return rowCaches.get(tableName);
+    }
+
+    private void removeCachedRow(String tableName, String key, long id) {
+        RowCache rowCache = rowCaches.get(tableName);
+        if (rowCache != null) {
+            if (rowCache.key.equals(key)) {
+                rowCache.invalidate(id);
+            } else {
+                rowCache.invalidateAll();
+            }
+        }
+    }
+
+    private void invalidateRowCache(String tableName) {
+        RowCache rowCache = rowCaches.get(tableName);
+        if (rowCache != null) {
+            rowCache.invalidateAll();
         }
     }
 
@@ -241,11 +887,12 @@ public class SQLiteUtils {
      */
     public Cursor findByCondition(String tableName, String condition, String[] columns) {
         try {
-            open();
-            cursor = sqLiteDatabase.query(tableName, columns, condition, null, null, null, null);
-            return cursor;
+            acquire();
+            return holdCursor(query(tableName, columns, condition, null, null));
         } catch (Exception e) {
             throw e;
+        } finally {
+            release();
         }
     }
 
@@ -263,21 +910,7 @@ public class SQLiteUtils {
      * @throws Exception
      */
     public Cursor findLinkAnd(String tableName, String[] names, String[] condition, String[] values, String[] columns, String orderColumn, String limit) {
-        try {
-            open();
-            StringBuffer selection = new StringBuffer();
-            for (int i = 0; i < names.length; i++) {
-                selection.append(names[i]);
-                selection.append(condition[i] + " ?");
-                if (i != names.length - 1) {
-                    selection.append(" and ");
-                }
-            }
-            cursor = sqLiteDatabase.query(true, tableName, columns, selection.toString(), values, null, null, orderColumn, limit);
-            return cursor;
-        } catch (Exception e) {
-            throw e;
-        }
+        return findLink(" and ", tableName, names, condition, values, columns, orderColumn, limit);
     }
 
     /**
@@ -294,20 +927,38 @@ public class SQLiteUtils {
      * @throws Exception
      */
     public Cursor findLinkOr(String tableName, String[] names, String[] condition, String[] values, String[] columns, String orderColumn, String limit) {
+        return findLink(" or ", tableName, names, condition, values, columns, orderColumn, limit);
+    }
+
+    /**
+     * 根据条件查询数据，相同结构的查询复用缓存的SQL语句，保证命中数据库连接内部的预编译语句缓存
+     */
+    private Cursor findLink(String link, String tableName, String[] names, String[] condition, String[] values, String[] columns, String orderColumn, String limit) {
         try {
-            open();
-            StringBuffer selection = new StringBuffer();
-            for (int i = 0; i < names.length; i++) {
-                selection.append(names[i]);
-                selection.append(condition[i] + " ?");
-                if (i != names.length - 1) {
-                    selection.append(" or ");
+            acquire();
+            StringBuilder key = new StringBuilder(link).append('|').append(tableName);
+            appendKey(key, names);
+            appendKey(key, condition);
+            appendKey(key, columns);
+            key.append('|').append(orderColumn).append('|').append(limit);
+            String sql = selectionCache.get(key.toString());
+            if (sql == null) {
+                StringBuilder selection = new StringBuilder();
+                for (int i = 0; i < names.length; i++) {
+                    selection.append(names[i]);
+                    selection.append(condition[i]).append(" ?");
+                    if (i != names.length - 1) {
+                        selection.append(link);
+                    }
                 }
+                sql = SQLiteQueryBuilder.buildQueryString(true, tableName, columns, selection.toString(), null, null, orderColumn, limit);
+                selectionCache.put(key.toString(), sql);
             }
-            cursor = sqLiteDatabase.query(true, tableName, columns, selection.toString(), values, null, null, orderColumn, limit);
-            return cursor;
+            return holdCursor(rawQuery(sql, values));
         } catch (Exception e) {
             throw e;
+        } finally {
+            release();
         }
     }
 
@@ -321,37 +972,1318 @@ public class SQLiteUtils {
      */
     public boolean udpate(String tableName, String[] names, String[] values, ContentValues args) {
         try {
-            open();
-            StringBuffer selection = new StringBuffer();
-            for (int i = 0; i < names.length; i++) {
-                selection.append(names[i]);
-                selection.append(" = ?");
-                if (i != names.length - 1) {
-                    selection.append("and");
+            acquire();
+            SQLiteProfiler activeProfiler = profiler;
+            long startNanos = activeProfiler == null ? 0 : System.nanoTime();
+            args = prepareValues(getSQLTable(tableName), args);
+            String[] updateColumns = args.keySet().toArray(new String[args.size()]);
+            Arrays.sort(updateColumns);
+            StringBuilder key = new StringBuilder("update|").append(tableName);
+            appendKey(key, updateColumns);
+            appendKey(key, names);
+            Statement statement = acquireCachedStatement(key.toString());
+            if (statement == null) {
+                statement = database.compileStatement(buildUpdateSql(tableName, updateColumns, names));
+                statement.acquireReference();
+                statementCache.put(key.toString(), statement);
+            }
+            try {
+                synchronized (statement) {
+                    statement.clearBindings();
+                    for (int i = 0; i < updateColumns.length; i++) {
+                        bindObject(statement, i + 1, args.get(updateColumns[i]));
+                    }
+                    for (int i = 0; i < names.length; i++) {
+                        statement.bindString(updateColumns.length + i + 1, values[i]);
+                    }
+                    int count = statement.executeUpdateDelete();
+                    if (activeProfiler != null) {
+                        profile(activeProfiler, startNanos, buildUpdateSql(tableName, updateColumns, names), null, count);
+                    }
+                    if (count > 0) {
+                        invalidateRowCache(tableName);
+                        dispatchTableChanged(tableName);
+                        return true;
+                    }
+                    return false;
                 }
+            } finally {
+                statement.releaseReference();
             }
-            return sqLiteDatabase.update(tableName, args, selection.toString(), values) > 0;
         } catch (Exception e) {
             throw e;
         } finally {
-            close();
+            release();
         }
     }
 
-    public List<SQLTable> getSqLiteTables() {
-        return sqLiteTables;
+    private static String buildUpdateSql(String tableName, String[] updateColumns, String[] names) {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(tableName).append(" SET ");
+        for (int i = 0; i < updateColumns.length; i++) {
+            sql.append(i == 0 ? "" : ",").append(updateColumns[i]).append(" = ?");
+        }
+        for (int i = 0; i < names.length; i++) {
+            sql.append(i == 0 ? " WHERE " : " and ").append(names[i]).append(" = ?");
+        }
+        return sql.toString();
     }
 
-    public void setSqLiteTables(List<SQLTable> sqLiteTables) {
-        this.sqLiteTables = sqLiteTables;
+    /**
+     * 从缓存中获取预编译语句并持有引用，避免语句在使用过程中被其他线程淘汰关闭
+     *
+     * @return 已持有引用的语句，缓存未命中或语句已被关闭时返回null
+     */
+    private Statement acquireCachedStatement(String key) {
+        Statement statement = statementCache.get(key);
+        if (statement != null) {
+            try {
+                statement.acquireReference();
+            } catch (IllegalStateException e) {
+                // 语句已被淘汰关闭，按未命中处理
+                return null;
+            }
+        }
+        return statement;
     }
 
-    public SQLiteDatabase getSqLiteDatabase() {
+    /**
+     * 查找表的所有数据并转换为对象集合
+     *
+     * @param tableName 表名
+     * @param rowMapper 行数据转换器，查询的列为转换器声明的列，未声明时查询所有列
+     * @param <T>       泛型
+     * @return 对象集合
+     */
+    public <T> List<T> findAllList(String tableName, RowMapper<T> rowMapper) {
+        String sql = SQLiteQueryBuilder.buildQueryString(false, tableName, rowMapper.getColumnNames(), null, null, null, null, null);
+        return findList(sql, null, rowMapper);
+    }
+
+    /**
+     * 执行查询并将所有行转换为对象集合，游标在读取完毕后关闭
+     *
+     * @param sql           查询SQL语句
+     * @param selectionArgs 查询参数
+     * @param rowMapper     行数据转换器
+     * @param <T>           泛型
+     * @return 对象集合
+     */
+    public <T> List<T> findList(String sql, String[] selectionArgs, RowMapper<T> rowMapper) {
+        CursorIterable<T> rows = findIterable(sql, selectionArgs, rowMapper);
+        try {
+            List<T> list = new ArrayList<>(rows.cursor.getCount());
+            for (T row : rows) {
+                list.add(row);
+            }
+            return list;
+        } finally {
+            rows.close();
+        }
+    }
+
+    /**
+     * 执行查询并返回按需转换的行数据迭代对象
+     * <p>遍历时每次只转换当前行，遍历完毕后自动关闭游标；中途停止遍历时需调用 {@link CursorIterable#close()}。</p>
+     *
+     * @param sql           查询SQL语句
+     * @param selectionArgs 查询参数
+     * @param rowMapper     行数据转换器
+     * @param <T>           泛型
+     * @return 行数据迭代对象，只能遍历一次
+     */
+    public <T> CursorIterable<T> findIterable(String sql, String[] selectionArgs, RowMapper<T> rowMapper) {
+        acquire();
+        Cursor rowCursor = null;
+        try {
+            rowCursor = streamQuery(sql, selectionArgs);
+            return new CursorIterable<>(this, rowCursor, rowMapper);
+        } catch (Exception e) {
+            if (rowCursor != null) {
+                rowCursor.close();
+            }
+            release();
+            throw e;
+        }
+    }
+
+    /**
+     * 执行查询并以支持背压的数据流逐行发射转换后的对象
+     * <p>订阅时执行查询，下游请求多少行就转换多少行，完成或取消订阅后关闭游标。</p>
+     *
+     * @param sql           查询SQL语句
+     * @param selectionArgs 查询参数
+     * @param rowMapper     行数据转换器
+     * @param <T>           泛型
+     * @return 行数据流
+     */
+    public <T> Flowable<T> findFlowable(final String sql, final String[] selectionArgs, final RowMapper<T> rowMapper) {
+        return Flowable.generate(new Callable<CursorIterable<T>>() {
+            @Override
+            public CursorIterable<T> call() throws Exception {
+                return findIterable(sql, selectionArgs, rowMapper);
+            }
+        }, new BiConsumer<CursorIterable<T>, Emitter<T>>() {
+            @Override
+            public void accept(CursorIterable<T> rows, Emitter<T> emitter) throws Exception {
+                if (rows.hasNextRow()) {
+                    emitter.onNext(rows.nextRow());
+                } else {
+                    emitter.onComplete();
+                }
+            }
+        }, new Consumer<CursorIterable<T>>() {
+            @Override
+            public void accept(CursorIterable<T> rows) throws Exception {
+                rows.close();
+            }
+        });
+    }
+
+    /**
+     * 按主键分页遍历整张表，以支持背压的数据流逐行发射转换后的对象
+     * <p>采用键集分页：每页按主键升序查询 pageSize 条，下一页从上一页最后一条记录的主键之后继续查询，
+     * 不使用OFFSET，翻页开销不随页数增长；每页读取完毕即关闭游标，内存占用只与 pageSize 相关，适用于导出百万级数据表。</p>
+     *
+     * @param tableName 表名
+     * @param key       整数主键名
+     * @param columns   要查询的列名，可以为null；不包含主键时自动追加
+     * @param pageSize  每页记录数
+     * @param rowMapper 行数据转换器，其下标数组对应 columns 中的列
+     * @param <T>       泛型
+     * @return 行数据流
+     */
+    public <T> Flowable<T> findAllPaged(final String tableName, final String key, final String[] columns, final int pageSize, final RowMapper<T> rowMapper) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be greater than 0");
+        }
+        return Flowable.generate(new Callable<PageState<T>>() {
+            @Override
+            public PageState<T> call() throws Exception {
+                acquire();
+                return new PageState<>(pageSize);
+            }
+        }, new BiConsumer<PageState<T>, Emitter<T>>() {
+            @Override
+            public void accept(PageState<T> state, Emitter<T> emitter) throws Exception {
+                if (state.position >= state.rows.size() && !state.isLastPage) {
+                    loadPage(state, tableName, key, columns, rowMapper);
+                }
+                if (state.position < state.rows.size()) {
+                    emitter.onNext(state.rows.get(state.position++));
+                } else {
+                    emitter.onComplete();
+                }
+            }
+        }, new Consumer<PageState<T>>() {
+            @Override
+            public void accept(PageState<T> state) throws Exception {
+                state.rows.clear();
+                release();
+            }
+        });
+    }
+
+    /**
+     * 查询主键大于上一页最后主键的下一页数据
+     */
+    private <T> void loadPage(PageState<T> state, String tableName, String key, String[] columns, RowMapper<T> rowMapper) {
+        String[] queryColumns = columns;
+        if (columns != null && !Arrays.asList(columns).contains(key)) {
+            queryColumns = Arrays.copyOf(columns, columns.length + 1);
+            queryColumns[columns.length] = key;
+        }
+        String selection = state.hasLastKey ? key + " > ?" : null;
+        String[] selectionArgs = state.hasLastKey ? new String[]{String.valueOf(state.lastKey)} : null;
+        String sql = SQLiteQueryBuilder.buildQueryString(false, tableName, queryColumns, selection, null, null, key, String.valueOf(state.pageSize));
+        state.rows.clear();
+        state.position = 0;
+        Cursor pageCursor = rawQuery(sql, selectionArgs);
+        try {
+            int keyIndex = pageCursor.getColumnIndexOrThrow(key);
+            int[] columnIndexes = rowMapper.resolveColumnIndexes(pageCursor);
+            while (pageCursor.moveToNext()) {
+                state.rows.add(rowMapper.mapRow(pageCursor, columnIndexes));
+                state.lastKey = pageCursor.getLong(keyIndex);
+                state.hasLastKey = true;
+            }
+        } finally {
+            pageCursor.close();
+        }
+        state.isLastPage = state.rows.size() < state.pageSize;
+    }
+
+    /**
+     * 执行查询并读取第一列为long数组
+     *
+     * @param sql           查询SQL语句，如：SELECT userId FROM db_user
+     * @param selectionArgs 查询参数
+     * @return 第一列的值
+     */
+    public long[] findLongColumn(String sql, String[] selectionArgs) {
+        Cursor columnCursor = null;
+        try {
+            acquire();
+            columnCursor = rawQuery(sql, selectionArgs);
+            long[] values = new long[columnCursor.getCount()];
+            for (int i = 0; columnCursor.moveToNext(); i++) {
+                values[i] = columnCursor.getLong(0);
+            }
+            return values;
+        } catch (Exception e) {
+            throw e;
+        } finally {
+            if (columnCursor != null) {
+                columnCursor.close();
+            }
+            release();
+        }
+    }
+
+    /**
+     * 执行查询并读取第一列为String数组
+     *
+     * @param sql           查询SQL语句，如：SELECT userName FROM db_user
+     * @param selectionArgs 查询参数
+     * @return 第一列的值
+     */
+    public String[] findStringColumn(String sql, String[] selectionArgs) {
+        Cursor columnCursor = null;
+        try {
+            acquire();
+            columnCursor = rawQuery(sql, selectionArgs);
+            String[] values = new String[columnCursor.getCount()];
+            for (int i = 0; columnCursor.moveToNext(); i++) {
+                values[i] = columnCursor.getString(0);
+            }
+            return values;
+        } catch (Exception e) {
+            throw e;
+        } finally {
+            if (columnCursor != null) {
+                columnCursor.close();
+            }
+            release();
+        }
+    }
+
+    /**
+     * 全文检索
+     * <p>在 {@link SQLTable#setFullTextSearch(String...)} 声明的影子表中检索，返回数据表的所有列，
+     * 以及 {@link #SEARCH_SNIPPET} 匹配片段列和 {@link #SEARCH_RANK} 匹配词数列，按匹配词数降序排列。</p>
+     * <p>不支持全文检索的低版本系统上（见 {@link SQLTable#isFtsSupported()}）改为在各检索列中LIKE匹配整个检索内容，
+     * 不支持FTS检索语法，匹配片段列为null，匹配词数列为0。</p>
+     *
+     * @param tableName 表名
+     * @param query     FTS检索语句，如：张三、zhang*（前缀匹配）、name:张三（指定列）
+     * @param limit     最大返回数
+     * @return Cursor游标
+     */
+    public Cursor search(String tableName, String query, int limit) {
+        SQLTable sqlTable = getSQLTable(tableName);
+        if (sqlTable != null && !sqlTable.isFtsSupported()) {
+            return searchLike(tableName, sqlTable.getFtsColumns(), query, limit);
+        }
+        String ftsTableName = tableName + "_fts";
+        String sql = "SELECT " + tableName + ".*"
+                + ", snippet(" + ftsTableName + ", '<b>', '</b>', '...', -1, 16) AS " + SEARCH_SNIPPET
+                + ", (length(offsets(" + ftsTableName + ")) - length(replace(offsets(" + ftsTableName + "), ' ', '')) + 1) / 4 AS " + SEARCH_RANK
+                + " FROM " + ftsTableName + " JOIN " + tableName + " ON " + tableName + ".rowid = " + ftsTableName + ".docid"
+                + " WHERE " + ftsTableName + " MATCH ?"
+                + " ORDER BY " + SEARCH_RANK + " DESC LIMIT " + limit;
+        try {
+            acquire();
+            return holdCursor(rawQuery(sql, new String[]{query}));
+        } catch (Exception e) {
+            throw e;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 低版本系统上全文检索的LIKE匹配实现，返回与 {@link #search(String, String, int)} 相同的列
+     */
+    private Cursor searchLike(String tableName, String[] ftsColumns, String query, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(tableName).append(".*")
+                .append(", NULL AS ").append(SEARCH_SNIPPET)
+                .append(", 0 AS ").append(SEARCH_RANK)
+                .append(" FROM ").append(tableName).append(" WHERE ");
+        String[] selectionArgs = new String[ftsColumns.length];
+        for (int i = 0; i < ftsColumns.length; i++) {
+            sql.append(i == 0 ? "" : " OR ").append(ftsColumns[i]).append(" LIKE ?");
+            selectionArgs[i] = "%" + query + "%";
+        }
+        sql.append(" LIMIT ").append(limit);
+        try {
+            acquire();
+            return holdCursor(rawQuery(sql.toString(), selectionArgs));
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 拼音前缀检索
+     * <p>在 {@link SQLTable#setPinyinSearch(String...)} 声明的检索列中，按全拼前缀或首字母前缀匹配，
+     * 如：zs、zhangs、zhangsan 均可匹配张三；输入中文时转换为拼音后匹配。检索通过全拼列及首字母列上的索引进行范围查找，不进行全表扫描。</p>
+     *
+     * @param tableName 表名
+     * @param column    拼音检索列
+     * @param query     检索内容
+     * @param columns   要查询的列名，可以为null
+     * @param limit     最大返回数
+     * @return Cursor游标
+     */
+    public Cursor searchPinyin(String tableName, String column, String query, String[] columns, int limit) {
+        String prefix = PinyinUtils.getNamePinyin(query.trim());
+        if (ObjectUtils.isEmpty(prefix)) {
+            prefix = "";
+        }
+        String upperBound = prefix.isEmpty() ? "\uffff" : prefix.substring(0, prefix.length() - 1) + (char) (prefix.charAt(prefix.length() - 1) + 1);
+        String pinyinColumn = SQLTable.getPinyinColumn(column);
+        String initialsColumn = SQLTable.getInitialsColumn(column);
+        String selection = "(" + pinyinColumn + " >= ? AND " + pinyinColumn + " < ?) OR (" + initialsColumn + " >= ? AND " + initialsColumn + " < ?)";
+        try {
+            acquire();
+            return holdCursor(query(tableName, columns, selection, new String[]{prefix, upperBound, prefix, upperBound}, String.valueOf(limit)));
+        } catch (Exception e) {
+            throw e;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 为声明了拼音检索列的数据生成全拼列及首字母列
+     *
+     * @return 未声明拼音检索列或名值对中不包含检索列时返回原对象，否则返回添加了拼音的新对象
+     */
+    private ContentValues prepareValues(SQLTable sqlTable, ContentValues contentValues) {
+        if (sqlTable == null || !sqlTable.hasPinyinSearch() || contentValues == null) {
+            return contentValues;
+        }
+        ContentValues pinyinValues = null;
+        for (String column : sqlTable.getPinyinColumns()) {
+            if (contentValues.containsKey(column)) {
+                if (pinyinValues == null) {
+                    pinyinValues = new ContentValues(contentValues);
+                }
+                String name = contentValues.getAsString(column);
+                pinyinValues.put(SQLTable.getPinyinColumn(column), PinyinUtils.getNamePinyin(name));
+                pinyinValues.put(SQLTable.getInitialsColumn(column), PinyinUtils.getNameFirstLetters(name));
+            }
+        }
+        return pinyinValues == null ? contentValues : pinyinValues;
+    }
+
+    /**
+     * 按值的类型绑定预编译语句参数
+     */
+    private static void bindObject(Statement statement, int index, Object value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else if (value instanceof Double || value instanceof Float) {
+            statement.bindDouble(index, ((Number) value).doubleValue());
+        } else if (value instanceof Number) {
+            statement.bindLong(index, ((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            statement.bindLong(index, (Boolean) value ? 1 : 0);
+        } else if (value instanceof byte[]) {
+            statement.bindBlob(index, (byte[]) value);
+        } else {
+            statement.bindString(index, value.toString());
+        }
+    }
+
+    private SQLTable getSQLTable(String tableName) {
+        for (SQLTable sqlTable : sqLiteTables) {
+            if (tableName.equals(sqlTable.getTableName())) {
+                return sqlTable;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取查询语句的执行计划
+     *
+     * @param sql           查询SQL语句
+     * @param selectionArgs 查询参数
+     * @return EXPLAIN QUERY PLAN 返回的每个步骤的描述，如：SEARCH TABLE db_user USING INDEX idx_user_name (userName=?)
+     */
+    public List<String> explainQueryPlan(String sql, String[] selectionArgs) {
+        List<String> details = new ArrayList<>();
+        Cursor planCursor = null;
+        try {
+            acquire();
+            planCursor = database.rawQuery("EXPLAIN QUERY PLAN " + sql, selectionArgs);
+            int detailIndex = planCursor.getColumnIndex("detail");
+            while (planCursor.moveToNext()) {
+                details.add(planCursor.getString(detailIndex));
+            }
+        } catch (Exception e) {
+            throw e;
+        } finally {
+            if (planCursor != null) {
+                planCursor.close();
+            }
+            release();
+        }
+        return details;
+    }
+
+    /**
+     * 检查查询语句是否使用了索引，存在未使用索引的全表扫描步骤时输出警告日志
+     *
+     * @param sql           查询SQL语句
+     * @param selectionArgs 查询参数
+     * @return {@code true}: 所有步骤均使用了索引或主键<br>{@code false}: 存在全表扫描
+     */
+    public boolean isUsingIndex(String sql, String[] selectionArgs) {
+        boolean isUsingIndex = true;
+        for (String detail : explainQueryPlan(sql, selectionArgs)) {
+            if (detail != null && detail.startsWith("SCAN") && !detail.contains("INDEX")) {
+                LogUtils.w("查询未使用索引：" + detail + "\n" + sql);
+                isUsingIndex = false;
+            }
+        }
+        return isUsingIndex;
+    }
+
+    /**
+     * 执行查询，开启耗时统计时记录查询耗时及返回行数
+     * <p>rawQuery返回游标时语句尚未执行，统计时通过读取行数执行查询并填充游标窗口，后续读取游标不再重复执行。</p>
+     */
+    private Cursor rawQuery(String sql, String[] selectionArgs) {
+        SQLiteProfiler activeProfiler = profiler;
+        if (activeProfiler == null) {
+            return database.rawQuery(sql, selectionArgs);
+        }
+        long startNanos = System.nanoTime();
+        Cursor queryCursor = database.rawQuery(sql, selectionArgs);
+        profile(activeProfiler, startNanos, sql, selectionArgs, queryCursor.getCount());
+        return queryCursor;
+    }
+
+    /**
+     * 执行逐行读取的查询，开启耗时统计时不读取行数，避免在返回前遍历全部结果
+     * <p>统计的耗时为各次移动游标的耗时之和（不包括调用方处理每行数据的时间），行数为实际读取的行数，在游标关闭时记录。</p>
+     */
+    private Cursor streamQuery(String sql, String[] selectionArgs) {
+        SQLiteProfiler activeProfiler = profiler;
+        if (activeProfiler == null) {
+            return database.rawQuery(sql, selectionArgs);
+        }
+        long startNanos = System.nanoTime();
+        Cursor queryCursor = database.rawQuery(sql, selectionArgs);
+        return new ProfiledCursor(queryCursor, activeProfiler, System.nanoTime() - startNanos, sql, selectionArgs);
+    }
+
+    private Cursor query(String tableName, String[] columns, String selection, String[] selectionArgs, String limit) {
+        if (profiler == null) {
+            return database.query(tableName, columns, selection, selectionArgs, limit);
+        }
+        return rawQuery(SQLiteQueryBuilder.buildQueryString(false, tableName, columns, selection, null, null, null, limit), selectionArgs);
+    }
+
+    /**
+     * 记录语句耗时，超过慢查询阈值时输出警告日志及执行计划
+     */
+    private void profile(SQLiteProfiler activeProfiler, long startNanos, String sql, String[] selectionArgs, int rows) {
+        recordProfile(activeProfiler, System.nanoTime() - startNanos, sql, selectionArgs, rows);
+    }
+
+    private void recordProfile(SQLiteProfiler activeProfiler, long elapsedNanos, String sql, String[] selectionArgs, int rows) {
+        if (!activeProfiler.record(sql, elapsedNanos, rows)) {
+            return;
+        }
+        StringBuilder message = new StringBuilder("慢查询：").append(elapsedNanos / 1000000).append("ms，").append(rows).append("行\n").append(sql);
+        if (!sql.startsWith("[")) {
+            try {
+                for (String detail : explainQueryPlan(sql, selectionArgs)) {
+                    message.append("\n").append(detail);
+                }
+            } catch (Exception e) {
+                message.append("\n执行计划获取失败：").append(e.getMessage());
+            }
+        }
+        LogUtils.w(message.toString());
+    }
+
+    private static void appendKey(StringBuilder key, String[] items) {
+        key.append('|');
+        if (items != null) {
+            for (String item : items) {
+                key.append(item).append(',');
+            }
+        }
+    }
+
+    /**
+     * 预编译语句及查询语句缓存的命中次数
+     */
+    public int getStatementCacheHitCount() {
+        return statementCache.hitCount() + selectionCache.hitCount();
+    }
+
+    /**
+     * 预编译语句及查询语句缓存的未命中次数，未命中时需要重新拼接并编译SQL语句
+     */
+    public int getStatementCacheMissCount() {
+        return statementCache.missCount() + selectionCache.missCount();
+    }
+
+    /**
+     * 设置预编译语句缓存容量，会清空已缓存的语句
+     *
+     * @param cacheSize 按语句结构（表名、列名、查询符号）缓存的最大语句数
+     */
+    public synchronized SQLiteUtils setStatementCacheSize(int cacheSize) {
+        statementCache.evictAll();
+        statementCache = new StatementCache(cacheSize);
+        selectionCache = new LruCache<>(cacheSize);
+        return this;
+    }
+
+    public SQLiteProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * 设置语句耗时统计，统计各查询、写操作及打开、关闭数据库的耗时，超过阈值的语句输出警告日志及执行计划
+     *
+     * @param profiler 耗时统计对象，null-关闭统计（默认）
+     */
+    public SQLiteUtils setProfiler(SQLiteProfiler profiler) {
+        this.profiler = profiler;
+        return this;
+    }
+
+    public boolean isKeepAlive() {
+        return isKeepAlive;
+    }
+
+    /**
+     * 设置是否保持数据库长连接
+     * <p>配置了加密密钥时，为避免每次打开都重新派生密钥，无论此设置如何均保持长连接。</p>
+     *
+     * @param keepAlive true-各操作方法执行完毕不关闭数据库，直到调用 {@link #shutdown()}；false-每次操作后关闭数据库（默认）
+     */
+    public SQLiteUtils setKeepAlive(boolean keepAlive) {
+        this.isKeepAlive = keepAlive;
+        return this;
+    }
+
+    public SQLiteConfig getSqLiteConfig() {
+        return sqLiteConfig;
+    }
+
+    /**
+     * 设置数据库连接配置，在下次打开数据库时生效
+     *
+     * @param sqLiteConfig 数据库连接配置
+     */
+    public SQLiteUtils setSqLiteConfig(SQLiteConfig sqLiteConfig) {
+        this.sqLiteConfig = sqLiteConfig;
+        return this;
+    }
+
+    public List<SQLTable> getSqLiteTables() {
+        return sqLiteTables;
+    }
+
+    public void setSqLiteTables(List<SQLTable> sqLiteTables) {
+        this.sqLiteTables = sqLiteTables;
+    }
+
+    /**
+     * 获取系统SQLite数据库对象
+     *
+     * @return 数据库未打开或为加密数据库时返回null
+     */
+    public SQLiteDatabase getSqLiteDatabase() {
         return sqLiteDatabase;
     }
 
-    public DatabaseHelper getDatabaseHelper() {
-        return databaseHelper;
+    /**
+     * 获取SQLCipher加密数据库对象，可用于修改密钥等SQLCipher特有操作
+     *
+     * @return 数据库未打开或未配置加密密钥时返回null
+     */
+    public net.sqlcipher.database.SQLiteDatabase getCipherDatabase() {
+        return cipherDatabase;
+    }
+
+    public DatabaseHelper getDatabaseHelper() {
+        return databaseHelper;
+    }
+
+    /**
+     * 行数据转换器，将游标的当前行转换为对象
+     * <p>列下标在每个游标上只解析一次，转换时通过下标直接读取，避免逐行按列名查找及反射：</p>
+     * <pre>
+     * new SQLiteUtils.RowMapper&lt;User&gt;("userId", "userName") {
+     *     public User mapRow(Cursor cursor, int[] columnIndexes) {
+     *         return new User(cursor.getLong(columnIndexes[0]), cursor.getString(columnIndexes[1]));
+     *     }
+     * };
+     * </pre>
+     *
+     * @param <T> 转换后的对象类型
+     */
+    public abstract static class RowMapper<T> {
+        private final String[] columnNames;
+
+        /**
+         * @param columnNames 需要读取的列名，{@link #mapRow(Cursor, int[])} 中的下标数组与其顺序一致；不传时下标数组为游标的所有列
+         */
+        public RowMapper(String... columnNames) {
+            this.columnNames = columnNames;
+        }
+
+        public String[] getColumnNames() {
+            return columnNames == null || columnNames.length == 0 ? null : columnNames;
+        }
+
+        /**
+         * 解析列下标，每个游标只调用一次
+         *
+         * @param cursor 游标
+         * @return 列下标数组
+         */
+        public int[] resolveColumnIndexes(Cursor cursor) {
+            if (columnNames == null || columnNames.length == 0) {
+                int[] columnIndexes = new int[cursor.getColumnCount()];
+                for (int i = 0; i < columnIndexes.length; i++) {
+                    columnIndexes[i] = i;
+                }
+                return columnIndexes;
+            }
+            int[] columnIndexes = new int[columnNames.length];
+            for (int i = 0; i < columnNames.length; i++) {
+                columnIndexes[i] = cursor.getColumnIndexOrThrow(columnNames[i]);
+            }
+            return columnIndexes;
+        }
+
+        /**
+         * 转换游标的当前行
+         *
+         * @param cursor        已移动到当前行的游标
+         * @param columnIndexes 列下标数组
+         * @return 转换后的对象
+         */
+        public abstract T mapRow(Cursor cursor, int[] columnIndexes);
+    }
+
+    /**
+     * 按需转换行数据的迭代对象，持有游标及一次数据库连接引用，遍历完毕或调用 {@link #close()} 后释放
+     *
+     * @param <T> 转换后的对象类型
+     */
+    public static class CursorIterable<T> implements Iterable<T>, Closeable {
+        private final SQLiteUtils sqLiteUtils;
+        private final Cursor cursor;
+        private final RowMapper<T> rowMapper;
+        private final int[] columnIndexes;
+        /**
+         * 游标已移动到尚未返回的行
+         */
+        private boolean isPending = false;
+        private boolean isClosed = false;
+
+        CursorIterable(SQLiteUtils sqLiteUtils, Cursor cursor, RowMapper<T> rowMapper) {
+            this.sqLiteUtils = sqLiteUtils;
+            this.cursor = cursor;
+            this.rowMapper = rowMapper;
+            this.columnIndexes = rowMapper.resolveColumnIndexes(cursor);
+        }
+
+        private boolean hasNextRow() {
+            if (isClosed) {
+                return false;
+            }
+            if (!isPending) {
+                isPending = cursor.moveToNext();
+                if (!isPending) {
+                    close();
+                }
+            }
+            return isPending;
+        }
+
+        private T nextRow() {
+            if (!hasNextRow()) {
+                throw new NoSuchElementException();
+            }
+            isPending = false;
+            return rowMapper.mapRow(cursor, columnIndexes);
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    return hasNextRow();
+                }
+
+                @Override
+                public T next() {
+                    return nextRow();
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            if (!isClosed) {
+                isClosed = true;
+                cursor.close();
+                sqLiteUtils.release();
+            }
+        }
+    }
+
+    /**
+     * 数据表的内存行缓存，以主键值为键
+     */
+    private static class RowCache extends LongLruCache<CachedRow> {
+        private final String key;
+        /**
+         * 失效计数，每次数据变更使缓存失效时加1
+         */
+        private long generation = 0;
+
+        RowCache(String key, int maxRows) {
+            super(maxRows);
+            this.key = key;
+        }
+
+        synchronized long getGeneration() {
+            return generation;
+        }
+
+        synchronized void invalidate(long id) {
+            generation++;
+            remove(id);
+        }
+
+        synchronized void invalidateAll() {
+            generation++;
+            evictAll();
+        }
+
+        /**
+         * 自读取失效计数后缓存未失效时才保存数据
+         */
+        synchronized void putIfUnchanged(long id, CachedRow value, long expectedGeneration) {
+            if (generation == expectedGeneration) {
+                put(id, value);
+            }
+        }
+
+        @Override
+        protected long sizeOf(CachedRow value) {
+            return value.size;
+        }
+    }
+
+    /**
+     * 缓存的整行数据
+     */
+    private static class CachedRow {
+        private final String[] columnNames;
+        private final Object[] values;
+        /**
+         * 估算占用的内存字节数
+         */
+        private final long size;
+
+        CachedRow(Cursor cursor) {
+            columnNames = cursor.getColumnNames();
+            values = new Object[columnNames.length];
+            long size = 16 + 4L * values.length;
+            for (int i = 0; i < values.length; i++) {
+                switch (cursor.getType(i)) {
+                    case Cursor.FIELD_TYPE_INTEGER:
+                        values[i] = cursor.getLong(i);
+                        size += 16;
+                        break;
+                    case Cursor.FIELD_TYPE_FLOAT:
+                        values[i] = cursor.getDouble(i);
+                        size += 16;
+                        break;
+                    case Cursor.FIELD_TYPE_STRING:
+                        String text = cursor.getString(i);
+                        values[i] = text;
+                        size += 40 + 2L * text.length();
+                        break;
+                    case Cursor.FIELD_TYPE_BLOB:
+                        byte[] blob = cursor.getBlob(i);
+                        values[i] = blob;
+                        size += 16 + blob.length;
+                        break;
+                    default:
+                        values[i] = null;
+                        break;
+                }
+            }
+            this.size = size;
+        }
+
+        /**
+         * 以游标形式返回缓存数据
+         *
+         * @param columns 要查询的列名，为null时返回所有列
+         */
+        Cursor toCursor(String[] columns) {
+            if (columns == null) {
+                MatrixCursor matrixCursor = new MatrixCursor(columnNames, 1);
+                matrixCursor.addRow(values);
+                return matrixCursor;
+            }
+            Object[] projection = new Object[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                int index = Arrays.asList(columnNames).indexOf(columns[i]);
+                if (index == -1) {
+                    throw new IllegalArgumentException("no such column: " + columns[i]);
+                }
+                projection[i] = values[index];
+            }
+            MatrixCursor matrixCursor = new MatrixCursor(columns, 1);
+            matrixCursor.addRow(projection);
+            return matrixCursor;
+        }
+    }
+
+    /**
+     * 线程内通过 {@link #beginTransaction()} 开启的事务状态
+     */
+    private static class TransactionState {
+        /**
+         * 事务嵌套层数
+         */
+        private int depth = 0;
+        /**
+         * 当前层级是否已标记成功
+         */
+        private boolean isMarkedSuccessful = false;
+        /**
+         * 任一层级未标记成功时整个事务回滚
+         */
+        private boolean isRolledBack = false;
+        /**
+         * 事务内发生变更的表名
+         */
+        private final Set<String> tables = new HashSet<>();
+    }
+
+    /**
+     * 键集分页遍历状态
+     */
+    private static class PageState<T> {
+        private final int pageSize;
+        private final List<T> rows;
+        private int position = 0;
+        private long lastKey = 0;
+        private boolean hasLastKey = false;
+        private boolean isLastPage = false;
+
+        PageState(int pageSize) {
+            this.pageSize = pageSize;
+            this.rows = new ArrayList<>(pageSize);
+        }
+    }
+
+    /**
+     * 统计逐行读取查询耗时的游标，关闭时记录移动游标的累计耗时及读取的行数
+     */
+    private class ProfiledCursor extends CursorWrapper {
+        private final SQLiteProfiler activeProfiler;
+        private final String sql;
+        private final String[] selectionArgs;
+        private long elapsedNanos;
+        private int rows = 0;
+        private boolean isRecorded = false;
+
+        ProfiledCursor(Cursor cursor, SQLiteProfiler activeProfiler, long elapsedNanos, String sql, String[] selectionArgs) {
+            super(cursor);
+            this.activeProfiler = activeProfiler;
+            this.elapsedNanos = elapsedNanos;
+            this.sql = sql;
+            this.selectionArgs = selectionArgs;
+        }
+
+        @Override
+        public boolean moveToNext() {
+            long startNanos = System.nanoTime();
+            boolean isMoved = super.moveToNext();
+            return moved(startNanos, isMoved);
+        }
+
+        @Override
+        public boolean moveToFirst() {
+            long startNanos = System.nanoTime();
+            boolean isMoved = super.moveToFirst();
+            return moved(startNanos, isMoved);
+        }
+
+        @Override
+        public boolean moveToPosition(int position) {
+            long startNanos = System.nanoTime();
+            boolean isMoved = super.moveToPosition(position);
+            return moved(startNanos, isMoved);
+        }
+
+        @Override
+        public boolean move(int offset) {
+            long startNanos = System.nanoTime();
+            boolean isMoved = super.move(offset);
+            return moved(startNanos, isMoved);
+        }
+
+        @Override
+        public boolean moveToLast() {
+            long startNanos = System.nanoTime();
+            boolean isMoved = super.moveToLast();
+            return moved(startNanos, isMoved);
+        }
+
+        @Override
+        public boolean moveToPrevious() {
+            long startNanos = System.nanoTime();
+            boolean isMoved = super.moveToPrevious();
+            return moved(startNanos, isMoved);
+        }
+
+        private boolean moved(long startNanos, boolean isMoved) {
+            elapsedNanos += System.nanoTime() - startNanos;
+            if (isMoved) {
+                rows = Math.max(rows, getPosition() + 1);
+            }
+            return isMoved;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            if (!isRecorded) {
+                isRecorded = true;
+                recordProfile(activeProfiler, elapsedNanos, sql, selectionArgs, rows);
+            }
+        }
+    }
+
+    /**
+     * 预编译语句LRU缓存，语句被淘汰时关闭
+     */
+    private static class StatementCache extends LruCache<String, Statement> {
+
+        StatementCache(int maxSize) {
+            super(maxSize);
+        }
+
+        @Override
+        protected void entryRemoved(boolean evicted, String key, Statement oldValue, Statement newValue) {
+            oldValue.close();
+        }
+    }
+
+    /**
+     * 数据库连接，统一系统SQLite与SQLCipher加密数据库的操作接口
+     */
+    private interface Database {
+        Cursor rawQuery(String sql, String[] selectionArgs);
+
+        Cursor query(String tableName, String[] columns, String selection, String[] selectionArgs, String limit);
+
+        void execSQL(String sql);
+
+        long insert(String tableName, String nullColumn, ContentValues contentValues);
+
+        int delete(String tableName, String whereClause, String[] whereArgs);
+
+        Statement compileStatement(String sql);
+
+        void beginTransaction();
+
+        void setTransactionSuccessful();
+
+        void endTransaction();
+    }
+
+    /**
+     * 预编译语句，统一系统SQLite与SQLCipher的预编译语句接口
+     */
+    private interface Statement {
+        void clearBindings();
+
+        void bindNull(int index);
+
+        void bindLong(int index, long value);
+
+        void bindDouble(int index, double value);
+
+        void bindString(int index, String value);
+
+        void bindBlob(int index, byte[] value);
+
+        long executeInsert();
+
+        int executeUpdateDelete();
+
+        /**
+         * 持有引用，语句已关闭时抛出IllegalStateException
+         */
+        void acquireReference();
+
+        void releaseReference();
+
+        void close();
+    }
+
+    /**
+     * 系统SQLite数据库连接
+     */
+    private static class PlainDatabase implements Database {
+        private final SQLiteDatabase db;
+
+        PlainDatabase(SQLiteDatabase db) {
+            this.db = db;
+        }
+
+        @Override
+        public Cursor rawQuery(String sql, String[] selectionArgs) {
+            return db.rawQuery(sql, selectionArgs);
+        }
+
+        @Override
+        public Cursor query(String tableName, String[] columns, String selection, String[] selectionArgs, String limit) {
+            return db.query(tableName, columns, selection, selectionArgs, null, null, null, limit);
+        }
+
+        @Override
+        public void execSQL(String sql) {
+            db.execSQL(sql);
+        }
+
+        @Override
+        public long insert(String tableName, String nullColumn, ContentValues contentValues) {
+            return db.insert(tableName, nullColumn, contentValues);
+        }
+
+        @Override
+        public int delete(String tableName, String whereClause, String[] whereArgs) {
+            return db.delete(tableName, whereClause, whereArgs);
+        }
+
+        @Override
+        public Statement compileStatement(String sql) {
+            return new PlainStatement(db.compileStatement(sql));
+        }
+
+        @Override
+        public void beginTransaction() {
+            db.beginTransaction();
+        }
+
+        @Override
+        public void setTransactionSuccessful() {
+            db.setTransactionSuccessful();
+        }
+
+        @Override
+        public void endTransaction() {
+            db.endTransaction();
+        }
+    }
+
+    private static class PlainStatement implements Statement {
+        private final SQLiteStatement statement;
+
+        PlainStatement(SQLiteStatement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public void clearBindings() {
+            statement.clearBindings();
+        }
+
+        @Override
+        public void bindNull(int index) {
+            statement.bindNull(index);
+        }
+
+        @Override
+        public void bindLong(int index, long value) {
+            statement.bindLong(index, value);
+        }
+
+        @Override
+        public void bindDouble(int index, double value) {
+            statement.bindDouble(index, value);
+        }
+
+        @Override
+        public void bindString(int index, String value) {
+            statement.bindString(index, value);
+        }
+
+        @Override
+        public void bindBlob(int index, byte[] value) {
+            statement.bindBlob(index, value);
+        }
+
+        @Override
+        public long executeInsert() {
+            return statement.executeInsert();
+        }
+
+        @Override
+        public int executeUpdateDelete() {
+            return statement.executeUpdateDelete();
+        }
+
+        @Override
+        public void acquireReference() {
+            statement.acquireReference();
+        }
+
+        @Override
+        public void releaseReference() {
+            statement.releaseReference();
+        }
+
+        @Override
+        public void close() {
+            statement.close();
+        }
+    }
+
+    /**
+     * SQLCipher加密数据库连接
+     */
+    private static class CipherDatabase implements Database {
+        private final net.sqlcipher.database.SQLiteDatabase db;
+
+        CipherDatabase(net.sqlcipher.database.SQLiteDatabase db) {
+            this.db = db;
+        }
+
+        @Override
+        public Cursor rawQuery(String sql, String[] selectionArgs) {
+            return db.rawQuery(sql, selectionArgs);
+        }
+
+        @Override
+        public Cursor query(String tableName, String[] columns, String selection, String[] selectionArgs, String limit) {
+            return db.query(tableName, columns, selection, selectionArgs, null, null, null, limit);
+        }
+
+        @Override
+        public void execSQL(String sql) {
+            db.execSQL(sql);
+        }
+
+        @Override
+        public long insert(String tableName, String nullColumn, ContentValues contentValues) {
+            return db.insert(tableName, nullColumn, contentValues);
+        }
+
+        @Override
+        public int delete(String tableName, String whereClause, String[] whereArgs) {
+            return db.delete(tableName, whereClause, whereArgs);
+        }
+
+        @Override
+        public Statement compileStatement(String sql) {
+            return new CipherStatement(db.compileStatement(sql));
+        }
+
+        @Override
+        public void beginTransaction() {
+            db.beginTransaction();
+        }
+
+        @Override
+        public void setTransactionSuccessful() {
+            db.setTransactionSuccessful();
+        }
+
+        @Override
+        public void endTransaction() {
+            db.endTransaction();
+        }
+    }
+
+    private static class CipherStatement implements Statement {
+        private final net.sqlcipher.database.SQLiteStatement statement;
+
+        CipherStatement(net.sqlcipher.database.SQLiteStatement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public void clearBindings() {
+            statement.clearBindings();
+        }
+
+        @Override
+        public void bindNull(int index) {
+            statement.bindNull(index);
+        }
+
+        @Override
+        public void bindLong(int index, long value) {
+            statement.bindLong(index, value);
+        }
+
+        @Override
+        public void bindDouble(int index, double value) {
+            statement.bindDouble(index, value);
+        }
+
+        @Override
+        public void bindString(int index, String value) {
+            statement.bindString(index, value);
+        }
+
+        @Override
+        public void bindBlob(int index, byte[] value) {
+            statement.bindBlob(index, value);
+        }
+
+        @Override
+        public long executeInsert() {
+            return statement.executeInsert();
+        }
+
+        @Override
+        public int executeUpdateDelete() {
+            return statement.executeUpdateDelete();
+        }
+
+        @Override
+        public void acquireReference() {
+            statement.acquireReference();
+        }
+
+        @Override
+        public void releaseReference() {
+            statement.releaseReference();
+        }
+
+        @Override
+        public void close() {
+            statement.close();
+        }
     }
 
     /**
@@ -365,22 +2297,219 @@ public class SQLiteUtils {
         }
 
         @Override
-        public void onCreate(SQLiteDatabase db) {
-            for (SQLTable sqlTable : sqLiteTables) {
-                if (ObjectUtils.isNotEmpty(sqlTable.getTableName()) && ObjectUtils.isNotEmpty(sqlTable.getCreateSQL())) {
-                    db.execSQL(sqlTable.getCreateSQL());
-                }
+        public void onConfigure(SQLiteDatabase db) {
+            super.onConfigure(db);
+            if (sqLiteConfig != null) {
+                sqLiteConfig.apply(db);
             }
         }
 
+        @Override
+        public void onOpen(SQLiteDatabase db) {
+            super.onOpen(db);
+            // onConfigure 在 API 16 才被引入，低版本在打开数据库后应用配置
+            if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN && sqLiteConfig != null) {
+                sqLiteConfig.apply(db);
+            }
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            createTables(new PlainDatabase(db));
+        }
+
         @Override
         public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-            for (SQLTable sqlTable : sqLiteTables) {
-                if (ObjectUtils.isNotEmpty(sqlTable.getTableName()) && ObjectUtils.isNotEmpty(sqlTable.getCreateSQL())) {
-                    db.execSQL("DROP TABLE IF EXISTS " + sqlTable.getTableName());
+            upgradeTables(new PlainDatabase(db), oldVersion, newVersion);
+        }
+    }
+
+    /**
+     * SQLCipher加密数据库的SQLiteOpenHelper内部类
+     */
+    private class CipherDatabaseHelper extends net.sqlcipher.database.SQLiteOpenHelper {
+
+        CipherDatabaseHelper(Context context, net.sqlcipher.database.SQLiteDatabaseHook hook) {
+            super(context, DB_NAME, null, DB_VERSION, hook);
+        }
+
+        @Override
+        public void onCreate(net.sqlcipher.database.SQLiteDatabase db) {
+            createTables(new CipherDatabase(db));
+        }
+
+        @Override
+        public void onUpgrade(net.sqlcipher.database.SQLiteDatabase db, int oldVersion, int newVersion) {
+            upgradeTables(new CipherDatabase(db), oldVersion, newVersion);
+        }
+    }
+
+    /**
+     * 设置密钥后、创建或升级数据表前应用数据库连接配置
+     */
+    private static class CipherConfigHook implements net.sqlcipher.database.SQLiteDatabaseHook {
+        private final SQLiteConfig sqLiteConfig;
+
+        CipherConfigHook(SQLiteConfig sqLiteConfig) {
+            this.sqLiteConfig = sqLiteConfig;
+        }
+
+        @Override
+        public void preKey(net.sqlcipher.database.SQLiteDatabase db) {
+        }
+
+        @Override
+        public void postKey(net.sqlcipher.database.SQLiteDatabase db) {
+            sqLiteConfig.apply(db);
+        }
+    }
+
+    /**
+     * 创建所有数据表，SQLiteOpenHelper已将此方法包裹在同一事务中
+     */
+    private void createTables(Database db) {
+        for (SQLTable sqlTable : sqLiteTables) {
+            if (ObjectUtils.isNotEmpty(sqlTable.getTableName()) && ObjectUtils.isNotEmpty(sqlTable.getCreateSQL())) {
+                db.execSQL(sqlTable.getCreateSQL());
+            }
+        }
+        createPinyinColumns(db);
+        createIndexes(db);
+        createFtsTables(db);
+    }
+
+    /**
+     * 数据库升级，SQLiteOpenHelper已将此方法包裹在同一事务中，任一步骤失败则整体回滚
+     * <p>声明了迁移语句的表按版本号依次执行迁移，所有表的同一版本迁移执行完毕后再执行下一版本；
+     * 升级前不存在的表直接执行创建语句；未声明迁移语句的表删除后重建。</p>
+     */
+    private void upgradeTables(Database db, int oldVersion, int newVersion) {
+        List<SQLTable> migrationTables = new ArrayList<>();
+        List<SQLTable> rebuildFtsTables = new ArrayList<>();
+        for (SQLTable sqlTable : sqLiteTables) {
+            if (ObjectUtils.isEmpty(sqlTable.getTableName()) || ObjectUtils.isEmpty(sqlTable.getCreateSQL())) {
+                continue;
+            }
+            boolean isRecreated = true;
+            if (!isTableExists(db, sqlTable.getTableName())) {
+                db.execSQL(sqlTable.getCreateSQL());
+            } else if (sqlTable.hasMigrations()) {
+                migrationTables.add(sqlTable);
+                isRecreated = false;
+            } else {
+                db.execSQL("DROP TABLE IF EXISTS " + sqlTable.getTableName());
+                db.execSQL(sqlTable.getCreateSQL());
+            }
+            // 删除重建的表会丢失同步触发器，新建的影子表没有已有数据的索引，其余影子表由触发器保持同步，无需重建
+            if (sqlTable.hasFullTextSearch() && sqlTable.isFtsSupported()
+                    && (isRecreated || !isTableExists(db, sqlTable.getFtsTableName()))) {
+                rebuildFtsTables.add(sqlTable);
+            }
+        }
+        for (int version = oldVersion + 1; version <= newVersion; version++) {
+            for (SQLTable sqlTable : migrationTables) {
+                for (String sql : sqlTable.getMigrations(version)) {
+                    db.execSQL(sql);
+                }
+            }
+        }
+        createPinyinColumns(db);
+        createIndexes(db);
+        createFtsTables(db);
+        for (SQLTable sqlTable : rebuildFtsTables) {
+            db.execSQL("INSERT INTO " + sqlTable.getFtsTableName() + " (" + sqlTable.getFtsTableName() + ") VALUES ('rebuild')");
+        }
+    }
+
+    /**
+     * 为声明了拼音检索列的数据表添加全拼列、首字母列及其索引，并为尚未生成拼音的数据补全拼音
+     */
+    private void createPinyinColumns(Database db) {
+        for (SQLTable sqlTable : sqLiteTables) {
+            if (!sqlTable.hasPinyinSearch() || ObjectUtils.isEmpty(sqlTable.getCreateSQL())) {
+                continue;
+            }
+            String tableName = sqlTable.getTableName();
+            List<String> existColumns = new ArrayList<>();
+            Cursor tableInfo = db.rawQuery("PRAGMA table_info(" + tableName + ")", null);
+            try {
+                int nameIndex = tableInfo.getColumnIndexOrThrow("name");
+                while (tableInfo.moveToNext()) {
+                    existColumns.add(tableInfo.getString(nameIndex));
+                }
+            } finally {
+                tableInfo.close();
+            }
+            for (String column : sqlTable.getPinyinColumns()) {
+                String pinyinColumn = SQLTable.getPinyinColumn(column);
+                String initialsColumn = SQLTable.getInitialsColumn(column);
+                for (String addColumn : new String[]{pinyinColumn, initialsColumn}) {
+                    if (!existColumns.contains(addColumn)) {
+                        db.execSQL("ALTER TABLE " + tableName + " ADD COLUMN " + addColumn + " TEXT");
+                    }
+                    db.execSQL("CREATE INDEX IF NOT EXISTS " + tableName + "_" + addColumn + "_index ON " + tableName + " (" + addColumn + ")");
+                }
+                Cursor rows = db.rawQuery("SELECT rowid, " + column + " FROM " + tableName + " WHERE " + column + " IS NOT NULL AND " + pinyinColumn + " IS NULL", null);
+                Statement statement = db.compileStatement("UPDATE " + tableName + " SET " + pinyinColumn + " = ?, " + initialsColumn + " = ? WHERE rowid = ?");
+                try {
+                    while (rows.moveToNext()) {
+                        String name = rows.getString(1);
+                        statement.clearBindings();
+                        bindObject(statement, 1, PinyinUtils.getNamePinyin(name));
+                        bindObject(statement, 2, PinyinUtils.getNameFirstLetters(name));
+                        statement.bindLong(3, rows.getLong(0));
+                        statement.executeUpdateDelete();
+                    }
+                } finally {
+                    statement.close();
+                    rows.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * 创建所有数据表声明的全文检索影子表及同步触发器
+     */
+    private void createFtsTables(Database db) {
+        for (SQLTable sqlTable : sqLiteTables) {
+            if (ObjectUtils.isEmpty(sqlTable.getTableName()) || ObjectUtils.isEmpty(sqlTable.getCreateSQL())) {
+                continue;
+            }
+            if (!sqlTable.isFtsSupported()) {
+                LogUtils.w("Full-text search table " + sqlTable.getFtsTableName() + " skipped, requires API 16");
+                continue;
+            }
+            for (String sql : sqlTable.getFtsCreateSQLs()) {
+                db.execSQL(sql);
+            }
+        }
+    }
+
+    /**
+     * 创建所有数据表声明的索引，已存在的索引不会重复创建
+     */
+    private void createIndexes(Database db) {
+        for (SQLTable sqlTable : sqLiteTables) {
+            if (ObjectUtils.isEmpty(sqlTable.getTableName()) || ObjectUtils.isEmpty(sqlTable.getCreateSQL())) {
+                continue;
+            }
+            for (SQLIndex sqlIndex : sqlTable.getIndexes()) {
+                if (sqlIndex.isSupported()) {
+                    db.execSQL(sqlIndex.getCreateSQL(sqlTable.getTableName()));
+                } else {
+                    LogUtils.w("Partial index " + sqlIndex.getIndexName() + " skipped, requires API 21");
                 }
             }
-            onCreate(db);
         }
     }
-}
\ No newline at end of file
+
+    private static boolean isTableExists(Database db, String tableName) {
+        Cursor countCursor = db.rawQuery("SELECT count(*) FROM sqlite_master WHERE type = 'table' AND name = ?", new String[]{tableName});
+        try {
+            return countCursor.moveToFirst() && countCursor.getLong(0) > 0;
+        } finally {
+            countCursor.close();
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.handy.base.utils.androidutilcode;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <pre>
+ *     desc  : 时间轮定时任务调度器
+ * </pre>
+ * <p>将定时任务按到期时间散列到环形时间轮的槽位中，调度和取消任务的时间复杂度均为O(1)，适用于大量设置又取消的超时、防抖等定时任务；
+ * ScheduledThreadPoolExecutor的延迟队列为堆结构，调度和取消均为O(log n)。</p>
+ * <p>到期时间的精度为一个时间刻度，由单独的时间轮线程推进，到期的任务交给工作线程池执行；没有待执行的定时任务时时间轮线程挂起，不会周期性唤醒。</p>
+ * <p>关闭后未到期的定时任务不再执行，已到期的任务由工作线程池执行完毕。</p>
+ */
+public final class HashedWheelScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+    /**
+     * 默认时间刻度，单位：毫秒
+     */
+    public static final long DEFAULT_TICK_MILLIS = 10L;
+    /**
+     * 默认时间轮槽位数
+     */
+    public static final int DEFAULT_TICKS_PER_WHEEL = 512;
+    /**
+     * 每个时间刻度最多从待调度队列转移到时间轮的任务数，避免大量任务同时调度时时间轮线程长时间不能推进
+     */
+    private static final int MAX_TRANSFER_PER_TICK = 100000;
+
+    private final ExecutorService worker;
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Thread tickThread;
+    private final Queue<WheelFuture<?>> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<WheelFuture<?>> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    /**
+     * 已调度且尚未到期或移除的任务数，为0时时间轮线程挂起
+     */
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final long startNanos;
+    private volatile boolean isShutdown = false;
+    private long tick = 0;
+
+    /**
+     * @param worker        执行到期任务的线程池
+     * @param tickDuration  时间刻度，即到期时间的精度
+     * @param unit          时间单位
+     * @param ticksPerWheel 时间轮槽位数，向上取整为2的幂
+     * @param threadFactory 创建时间轮线程的线程工厂
+     */
+    public HashedWheelScheduler(final ExecutorService worker, final long tickDuration, final TimeUnit unit,
+                                final int ticksPerWheel, final ThreadFactory threadFactory) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be greater than 0");
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("ticksPerWheel must be in (0, 2^30]");
+        }
+        this.worker = worker;
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = 1;
+        while (size < ticksPerWheel) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.startNanos = System.nanoTime();
+        this.tickThread = threadFactory.newThread(new Runnable() {
+            @Override
+            public void run() {
+                runWheel();
+            }
+        });
+        this.tickThread.start();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(final Runnable command, final long delay, final TimeUnit unit) {
+        return schedule(new WheelFuture<Void>(command, null, deadline(delay, unit), 0));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(final Callable<V> callable, final long delay, final TimeUnit unit) {
+        return schedule(new WheelFuture<>(callable, deadline(delay, unit)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(final Runnable command, final long initialDelay, final long period, final TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be greater than 0");
+        }
+        return schedule(new WheelFuture<Void>(command, null, deadline(initialDelay, unit), unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(final Runnable command, final long initialDelay, final long delay, final TimeUnit unit) {
+        if (delay <= 0) {
+            throw new IllegalArgumentException("delay must be greater than 0");
+        }
+        return schedule(new WheelFuture<Void>(command, null, deadline(initialDelay, unit), -unit.toNanos(delay)));
+    }
+
+    private static long deadline(final long delay, final TimeUnit unit) {
+        long delayNanos = unit.toNanos(Math.max(0, delay));
+        // 避免到期时间溢出
+        return System.nanoTime() + Math.min(delayNanos, Long.MAX_VALUE >> 1);
+    }
+
+    private <V> ScheduledFuture<V> schedule(final WheelFuture<V> future) {
+        if (isShutdown) {
+            throw new RejectedExecutionException("Scheduler has been shut down.");
+        }
+        enqueue(future);
+        return future;
+    }
+
+    private void enqueue(final WheelFuture<?> future) {
+        pendingTimeouts.add(future);
+        if (pendingCount.getAndIncrement() == 0) {
+            LockSupport.unpark(tickThread);
+        }
+    }
+
+    /**
+     * 时间轮线程：等待下一个时间刻度，将新调度的任务放入槽位，移除已取消的任务，并执行当前槽位中到期的任务
+     */
+    private void runWheel() {
+        while (!isShutdown) {
+            // 清除中断标志，避免挂起立即返回导致空转
+            Thread.interrupted();
+            if (pendingCount.get() == 0) {
+                LockSupport.park(this);
+                // 挂起期间时间轮为空，直接跳到当前时间对应的时间刻度
+                tick = Math.max(tick, (System.nanoTime() - startNanos) / tickNanos);
+                continue;
+            }
+            long sleepNanos = startNanos + (tick + 1) * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                continue;
+            }
+            transferTimeoutsToBuckets();
+            processCancelledTimeouts();
+            expireTimeouts(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+        for (WheelFuture<?> future = pendingTimeouts.poll(); future != null; future = pendingTimeouts.poll()) {
+            future.cancel(false);
+        }
+        for (Bucket bucket : wheel) {
+            for (WheelFuture<?> future = bucket.head; future != null; future = future.next) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    private void transferTimeoutsToBuckets() {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            WheelFuture<?> future = pendingTimeouts.poll();
+            if (future == null) {
+                break;
+            }
+            if (future.isCancelled()) {
+                pendingCount.decrementAndGet();
+                continue;
+            }
+            long calculated = (future.deadlineNanos - startNanos) / tickNanos;
+            future.remainingRounds = (calculated - tick) / wheel.length;
+            // 已过期的任务放入当前槽位，在本次时间刻度执行
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(future);
+        }
+    }
+
+    private void processCancelledTimeouts() {
+        for (WheelFuture<?> future = cancelledTimeouts.poll(); future != null; future = cancelledTimeouts.poll()) {
+            if (future.bucket != null) {
+                future.bucket.remove(future);
+                pendingCount.decrementAndGet();
+            }
+        }
+    }
+
+    private void expireTimeouts(final Bucket bucket) {
+        WheelFuture<?> future = bucket.head;
+        while (future != null) {
+            WheelFuture<?> next = future.next;
+            if (future.remainingRounds <= 0) {
+                bucket.remove(future);
+                pendingCount.decrementAndGet();
+                if (!future.isCancelled()) {
+                    try {
+                        worker.execute(future);
+                    } catch (RejectedExecutionException e) {
+                        future.cancel(false);
+                    }
+                }
+            } else if (future.isCancelled()) {
+                bucket.remove(future);
+                pendingCount.decrementAndGet();
+            } else {
+                future.remainingRounds--;
+            }
+            future = next;
+        }
+    }
+
+    /**
+     * 立即执行的任务直接交给工作线程池
+     */
+    @Override
+    public void execute(final Runnable command) {
+        if (isShutdown) {
+            throw new RejectedExecutionException("Scheduler has been shut down.");
+        }
+        worker.execute(command);
+    }
+
+    @Override
+    public void shutdown() {
+        isShutdown = true;
+        LockSupport.unpark(tickThread);
+        worker.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        isShutdown = true;
+        LockSupport.unpark(tickThread);
+        return worker.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return isShutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return isShutdown && !tickThread.isAlive() && worker.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        tickThread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        return worker.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS) && !tickThread.isAlive();
+    }
+
+    /**
+     * 已调度且尚未到期或移除的定时任务数
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * 执行到期任务的线程池
+     */
+    ExecutorService getWorker() {
+        return worker;
+    }
+
+    /**
+     * 时间轮槽位，任务以双向链表保存，只由时间轮线程读写
+     */
+    private static final class Bucket {
+        private WheelFuture<?> head;
+        private WheelFuture<?> tail;
+
+        void add(final WheelFuture<?> future) {
+            future.bucket = this;
+            if (head == null) {
+                head = tail = future;
+            } else {
+                tail.next = future;
+                future.prev = tail;
+                tail = future;
+            }
+        }
+
+        void remove(final WheelFuture<?> future) {
+            if (future.prev != null) {
+                future.prev.next = future.next;
+            } else {
+                head = future.next;
+            }
+            if (future.next != null) {
+                future.next.prev = future.prev;
+            } else {
+                tail = future.prev;
+            }
+            future.prev = null;
+            future.next = null;
+            future.bucket = null;
+        }
+    }
+
+    /**
+     * 时间轮中的定时任务
+     */
+    private final class WheelFuture<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+        /**
+         * 重复执行的周期，0-只执行一次；大于0-固定频率；小于0-固定间隔
+         */
+        private final long periodNanos;
+        private volatile long deadlineNanos;
+        private long remainingRounds;
+        private Bucket bucket;
+        private WheelFuture<?> prev;
+        private WheelFuture<?> next;
+
+        WheelFuture(final Runnable runnable, final V result, final long deadlineNanos, final long periodNanos) {
+            super(runnable, result);
+            this.deadlineNanos = deadlineNanos;
+            this.periodNanos = periodNanos;
+        }
+
+        WheelFuture(final Callable<V> callable, final long deadlineNanos) {
+            super(callable);
+            this.deadlineNanos = deadlineNanos;
+            this.periodNanos = 0;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return periodNanos != 0;
+        }
+
+        @Override
+        public void run() {
+            if (!isPeriodic()) {
+                super.run();
+            } else if (runAndReset()) {
+                if (!isShutdown) {
+                    deadlineNanos = periodNanos > 0 ? deadlineNanos + periodNanos : System.nanoTime() - periodNanos;
+                    enqueue(this);
+                }
+                // 时间轮线程可能在入队前已关闭并清空待调度队列，入队后再次检查，关闭后取消任务，避免其永远处于未完成状态
+                if (isShutdown) {
+                    cancel(false);
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                cancelledTimeouts.add(this);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(final Delayed another) {
+            if (another == this) {
+                return 0;
+            }
+            long diff = getDelay(TimeUnit.NANOSECONDS) - another.getDelay(TimeUnit.NANOSECONDS);
+            return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+        }
+    }
+}
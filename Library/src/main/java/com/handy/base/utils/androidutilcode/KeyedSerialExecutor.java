@@ -0,0 +1,273 @@
+package com.handy.base.utils.androidutilcode;
+
+import com.blankj.utilcode.util.LogUtils;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * <pre>
+ *     desc  : 按键串行执行任务的线程池
+ * </pre>
+ * <p>相同键的任务按提交顺序依次执行，不同键的任务在共享线程池中并行执行，如：同一用户的写操作按顺序执行，不同用户之间互不等待。</p>
+ * <p>每个键对应一个任务队列，不单独占用线程；队列中的任务执行完毕后队列即被移除，不会因键的数量增长而占用内存。
+ * 每个队列每次最多连续执行 {@link #MAX_TASKS_PER_RUN} 个任务后重新提交，避免任务较多的队列长期占用线程；
+ * 线程池在提交线程中直接执行（如CallerRunsPolicy）时在当前线程中循环执行，不会递归。</p>
+ * <p>任务抛出异常（包括Error）后队列继续执行后续任务；线程池丢弃队列（如DiscardOldestPolicy、shutdownNow）时需调用
+ * {@link #drainTo(Runnable, List)} 移除队列，{@link ThreadPoolUtils} 已处理。</p>
+ */
+public final class KeyedSerialExecutor {
+    /**
+     * 每个队列每次连续执行的最大任务数
+     */
+    public static final int MAX_TASKS_PER_RUN = 8;
+
+    private final Executor executor;
+    private final ConcurrentMap<Object, Lane> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * @param executor 执行任务的共享线程池
+     */
+    public KeyedSerialExecutor(final Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 执行任务，与之前提交的相同键的任务按顺序执行
+     *
+     * @param key     键，如：用户ID
+     * @param command 任务
+     * @throws RejectedExecutionException 共享线程池拒绝执行或已关闭
+     */
+    public void execute(final Object key, final Runnable command) {
+        if (executor instanceof ExecutorService && ((ExecutorService) executor).isShutdown()) {
+            // 正在执行的队列不会再次提交到线程池，需在此拒绝，否则任务将一直等待
+            throw new RejectedExecutionException("Executor has been shut down.");
+        }
+        while (true) {
+            Lane lane = lanes.get(key);
+            if (lane == null) {
+                Lane newLane = new Lane(key);
+                lane = lanes.putIfAbsent(key, newLane);
+                if (lane == null) {
+                    lane = newLane;
+                }
+            }
+            boolean isScheduleNeeded;
+            synchronized (lane) {
+                if (lane.isRemoved) {
+                    // 队列刚执行完毕被移除，重新获取
+                    continue;
+                }
+                lane.tasks.add(command);
+                isScheduleNeeded = !lane.isRunning;
+                lane.isRunning = true;
+            }
+            if (isScheduleNeeded) {
+                schedule(lane, command);
+            }
+            return;
+        }
+    }
+
+    /**
+     * 提交Callable任务，与之前提交的相同键的任务按顺序执行
+     *
+     * @param key  键
+     * @param task 任务
+     * @param <T>  泛型
+     * @return 表示任务等待完成的Future
+     */
+    public <T> Future<T> submit(final Object key, final Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(key, future);
+        return future;
+    }
+
+    /**
+     * 提交Runnable任务，与之前提交的相同键的任务按顺序执行
+     *
+     * @param key  键
+     * @param task 任务
+     * @return 表示任务等待完成的Future，该Future的{@code get}方法在成功完成时将会返回null结果
+     */
+    public Future<?> submit(final Object key, final Runnable task) {
+        FutureTask<Void> future = new FutureTask<>(task, null);
+        execute(key, future);
+        return future;
+    }
+
+    /**
+     * 当前有任务等待或正在执行的键的数量
+     */
+    public int getLaneCount() {
+        return lanes.size();
+    }
+
+    /**
+     * 线程池丢弃或未执行的任务为按键串行队列时，移除该队列并将其中尚未执行的任务添加到列表中，使该键后续提交的任务能够重新调度；
+     * 否则直接将任务添加到列表中
+     *
+     * @param runnable 线程池丢弃或未执行的任务
+     * @param tasks    尚未执行的任务列表
+     */
+    static void drainTo(final Runnable runnable, final List<Runnable> tasks) {
+        if (runnable instanceof KeyedSerialExecutor.Lane) {
+            ((KeyedSerialExecutor.Lane) runnable).drainTo(tasks);
+        } else if (runnable != null) {
+            tasks.add(runnable);
+        }
+    }
+
+    private void schedule(final Lane lane, final Runnable command) {
+        try {
+            executor.execute(lane);
+        } catch (RejectedExecutionException e) {
+            synchronized (lane) {
+                lane.tasks.remove(command);
+                lane.isRunning = false;
+                if (lane.tasks.isEmpty()) {
+                    lane.isRemoved = true;
+                    lanes.remove(lane.key, lane);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 单个键的任务队列，同一时刻最多在一个线程中执行
+     */
+    private final class Lane implements Runnable {
+        private final Object key;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private boolean isRunning = false;
+        private boolean isRemoved = false;
+        /**
+         * 正在将队列重新提交到线程池的线程
+         */
+        private Thread reschedulingThread = null;
+        /**
+         * 重新提交时线程池是否在提交线程中直接执行了队列
+         */
+        private boolean isRunInline = false;
+
+        Lane(final Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            Thread currentThread = Thread.currentThread();
+            synchronized (this) {
+                if (reschedulingThread == currentThread) {
+                    // 重新提交时线程池在当前线程中直接执行，交由外层循环继续执行，避免递归
+                    isRunInline = true;
+                    return;
+                }
+            }
+            boolean isHandedOver = false;
+            try {
+                while (true) {
+                    for (int i = 0; i < MAX_TASKS_PER_RUN; i++) {
+                        Runnable task;
+                        synchronized (this) {
+                            task = tasks.poll();
+                            if (task == null) {
+                                release();
+                                isHandedOver = true;
+                                return;
+                            }
+                        }
+                        try {
+                            task.run();
+                        } catch (RuntimeException e) {
+                            // 单个任务异常不影响同一队列中后续任务的执行
+                            LogUtils.e(e);
+                        }
+                    }
+                    synchronized (this) {
+                        if (tasks.isEmpty()) {
+                            release();
+                            isHandedOver = true;
+                            return;
+                        }
+                        reschedulingThread = currentThread;
+                        isRunInline = false;
+                    }
+                    boolean isContinued;
+                    try {
+                        executor.execute(this);
+                        isContinued = false;
+                    } catch (RejectedExecutionException ignored) {
+                        // 线程池已关闭，在当前线程中执行完剩余任务以保证顺序及不丢失任务
+                        isContinued = true;
+                    }
+                    synchronized (this) {
+                        // 已交由其他线程执行时，该线程可能已开始自己的重新提交，只清除当前线程设置的标记
+                        if (reschedulingThread == currentThread) {
+                            reschedulingThread = null;
+                            isContinued |= isRunInline;
+                        }
+                    }
+                    if (!isContinued) {
+                        isHandedOver = true;
+                        return;
+                    }
+                }
+            } finally {
+                if (!isHandedOver) {
+                    // 任务抛出Error，重新提交剩余任务，避免该键之后的任务一直等待
+                    recover();
+                }
+            }
+        }
+
+        /**
+         * 任务异常退出后重新提交队列，线程池拒绝时等待该键下一次提交任务时重新调度
+         */
+        private void recover() {
+            synchronized (this) {
+                if (tasks.isEmpty()) {
+                    release();
+                    return;
+                }
+            }
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    isRunning = false;
+                }
+            }
+        }
+
+        /**
+         * 线程池丢弃队列时移除队列，并取出尚未执行的任务
+         */
+        private void drainTo(final List<Runnable> list) {
+            synchronized (this) {
+                list.addAll(tasks);
+                tasks.clear();
+                release();
+            }
+        }
+
+        /**
+         * 队列为空或被丢弃时移除，需持有队列锁
+         */
+        private void release() {
+            isRunning = false;
+            isRemoved = true;
+            lanes.remove(key, this);
+        }
+    }
+}
@@ -126,6 +126,91 @@ public final class PinyinUtils {
         return String.valueOf(surname.charAt(0));
     }
 
+    /**
+     * 根据名字获取全拼，姓氏按多音字姓氏读音转换
+     * <p>如：曾小贤 → zengxiaoxian，单于飞 → chanyufei，用于姓名的拼音检索。</p>
+     *
+     * @param name 名字
+     * @return 小写全拼，无分隔符
+     */
+    public static String getNamePinyin(final CharSequence name) {
+        if (name == null || name.length() == 0) return null;
+        StringBuilder sb = new StringBuilder(name.length() * 4);
+        int start = appendSurname(name, sb, false);
+        for (int i = start, len = name.length(); i < len; i++) {
+            appendPinyin(name.charAt(i), sb, false);
+        }
+        return sb.toString().toLowerCase();
+    }
+
+    /**
+     * 根据名字获取所有汉字的首字母，姓氏按多音字姓氏读音转换
+     * <p>如：曾小贤 → zxx，单于飞 → cyf，用于姓名的首字母检索。</p>
+     *
+     * @param name 名字
+     * @return 小写首字母，无分隔符
+     */
+    public static String getNameFirstLetters(final CharSequence name) {
+        if (name == null || name.length() == 0) return null;
+        StringBuilder sb = new StringBuilder(name.length());
+        int start = appendSurname(name, sb, true);
+        for (int i = start, len = name.length(); i < len; i++) {
+            appendPinyin(name.charAt(i), sb, true);
+        }
+        return sb.toString().toLowerCase();
+    }
+
+    /**
+     * 追加姓氏的拼音或首字母
+     *
+     * @return 姓氏所占的字数，非多音字姓氏返回0
+     */
+    private static int appendSurname(final CharSequence name, final StringBuilder sb, final boolean firstLetter) {
+        if (name.length() >= 2) {
+            CharSequence str = name.subSequence(0, 2).toString();
+            for (String[] compound : compoundSurnames) {
+                if (compound[0].equals(str)) {
+                    if (firstLetter) {
+                        sb.append(compound[1].charAt(0)).append(compound[2].charAt(0));
+                    } else {
+                        sb.append(compound[1]).append(compound[2]);
+                    }
+                    return 2;
+                }
+            }
+        }
+        String surname = surnames.get(name.charAt(0));
+        if (surname != null) {
+            sb.append(firstLetter ? surname.substring(0, 1) : surname);
+            return 1;
+        }
+        return 0;
+    }
+
+    private static void appendPinyin(final char ch, final StringBuilder sb, final boolean firstLetter) {
+        if (ch >= 0x4E00 && ch <= 0x9FA5) {
+            int sp = (ch - 0x4E00) * 6;
+            if (firstLetter) {
+                sb.append(pinyinTable.charAt(sp));
+            } else {
+                sb.append(pinyinTable, sp, sp + 6);
+                while (sb.charAt(sb.length() - 1) == ' ') {
+                    sb.setLength(sb.length() - 1);
+                }
+            }
+        } else if (!Character.isWhitespace(ch)) {
+            sb.append(ch);
+        }
+    }
+
+    // 复姓读音表：复姓、第一个字读音、第二个字读音
+    private static final String[][] compoundSurnames = {
+            {"澹台", "tan", "tai"},
+            {"尉迟", "yu", "chi"},
+            {"万俟", "mo", "qi"},
+            {"单于", "chan", "yu"}
+    };
+
     // 多音字姓氏映射表
     private static final SimpleArrayMap<Character, String> surnames;
 
@@ -0,0 +1,432 @@
+package com.handy.base.utils.androidutilcode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * <pre>
+ *     desc  : 结构化任务作用域
+ * </pre>
+ * <p>通过 {@link ThreadPoolUtils#openScope(long, TimeUnit, int)} 创建，作用域内的任务作为一个整体等待、失败及取消：</p>
+ * <ul>
+ * <li>截止时间：{@link #join()} 超过截止时间后取消所有未完成的任务；子作用域的截止时间不晚于父作用域</li>
+ * <li>失败传播：任一任务抛出异常后立即取消其他任务，{@link #join()} 抛出该异常</li>
+ * <li>级联取消：取消作用域时同时取消其子作用域，任务中可通过 {@link #current()} 获取所在作用域并创建子作用域</li>
+ * <li>并发上限：同时执行的任务数不超过上限，其余任务在作用域内排队，不占用线程池的线程及队列；
+ * 被取消的任务在其线程退出后才释放名额</li>
+ * </ul>
+ * <pre>
+ * TaskScope scope = ThreadPoolRegistry.io().openScope(3, TimeUnit.SECONDS, 4);
+ * try {
+ *     Future&lt;User&gt; user = scope.fork(userTask);
+ *     Future&lt;List&lt;Order&gt;&gt; orders = scope.fork(ordersTask);
+ *     scope.join();
+ *     show(user.get(), orders.get());
+ * } finally {
+ *     scope.close();
+ * }
+ * </pre>
+ */
+public final class TaskScope {
+    /**
+     * 不限制并发任务数
+     */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private static final ThreadLocal<TaskScope> CURRENT = new ThreadLocal<>();
+
+    private final Executor executor;
+    private final TaskScope parent;
+    private final boolean hasDeadline;
+    private final long deadlineNanos;
+    private final int maxConcurrency;
+    /**
+     * 为true时第一个成功的任务取消其他任务，任务失败不取消其他任务，用于 {@link #invokeAny(Collection)}
+     */
+    private final boolean isFirstSuccessWins;
+
+    private final Object lock = new Object();
+    private final Set<ScopedTask<?>> unfinishedTasks = new HashSet<>();
+    private final ArrayDeque<ScopedTask<?>> waitingTasks = new ArrayDeque<>();
+    private final List<TaskScope> children = new ArrayList<>();
+    private int runningCount = 0;
+    private boolean isCancelled = false;
+    private Throwable failure = null;
+    private Throwable lastFailure = null;
+    private boolean hasResult = false;
+    private Object result = null;
+
+    TaskScope(final Executor executor, final TaskScope parent, final long timeout, final TimeUnit unit,
+              final int maxConcurrency, final boolean isFirstSuccessWins) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency <= 0");
+        }
+        this.executor = executor;
+        this.parent = parent;
+        this.maxConcurrency = maxConcurrency;
+        this.isFirstSuccessWins = isFirstSuccessWins;
+        long now = System.nanoTime();
+        boolean hasOwnDeadline = timeout >= 0;
+        long ownDeadline = hasOwnDeadline ? now + Math.min(unit.toNanos(timeout), Long.MAX_VALUE / 2) : 0;
+        if (parent != null && parent.hasDeadline) {
+            this.hasDeadline = true;
+            this.deadlineNanos = hasOwnDeadline && ownDeadline - parent.deadlineNanos < 0 ? ownDeadline : parent.deadlineNanos;
+        } else {
+            this.hasDeadline = hasOwnDeadline;
+            this.deadlineNanos = ownDeadline;
+        }
+    }
+
+    /**
+     * 获取当前线程正在执行的任务所在的作用域
+     *
+     * @return 当前线程不在作用域的任务中执行时返回null
+     */
+    public static TaskScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 创建子作用域，在同一线程池中执行，截止时间不晚于本作用域，本作用域取消时子作用域同时取消
+     *
+     * @param timeout        超时时长，小于0为使用本作用域的截止时间
+     * @param unit           时间单位
+     * @param maxConcurrency 子作用域同时执行的最大任务数
+     * @return 子作用域
+     * @throws CancellationException 本作用域已取消
+     */
+    public TaskScope openChild(final long timeout, final TimeUnit unit, final int maxConcurrency) {
+        TaskScope child = new TaskScope(executor, this, timeout, unit, maxConcurrency, false);
+        attach(child);
+        return child;
+    }
+
+    /**
+     * 提交任务
+     * <p>并发任务数未达到上限时立即提交到线程池，否则在作用域内排队；作用域已取消时返回已取消的Future。</p>
+     *
+     * @param task 任务
+     * @param <T>  泛型
+     * @return 表示任务等待完成的Future
+     */
+    public <T> Future<T> fork(final Callable<T> task) {
+        ScopedTask<T> scopedTask = new ScopedTask<>(task);
+        synchronized (lock) {
+            if (isCancelled) {
+                scopedTask.cancel(false);
+                return scopedTask;
+            }
+            unfinishedTasks.add(scopedTask);
+            if (runningCount >= maxConcurrency) {
+                waitingTasks.add(scopedTask);
+                return scopedTask;
+            }
+            runningCount++;
+            scopedTask.isDispatched = true;
+        }
+        dispatch(scopedTask);
+        return scopedTask;
+    }
+
+    /**
+     * 等待所有任务执行完毕
+     * <p>任务失败、超过截止时间或等待被中断时取消所有未完成的任务及子作用域。</p>
+     *
+     * @throws InterruptedException 等待被中断
+     * @throws ExecutionException   任一任务执行失败，cause为第一个失败任务抛出的异常
+     * @throws TimeoutException     超过截止时间
+     * @throws CancellationException 作用域已被取消
+     */
+    public void join() throws InterruptedException, ExecutionException, TimeoutException {
+        await();
+        Throwable cause;
+        synchronized (lock) {
+            cause = failure;
+            if (cause == null && isCancelled) {
+                throw new CancellationException("TaskScope has been cancelled");
+            }
+        }
+        if (cause != null) {
+            // 失败的任务完成后才取消其他任务，保证返回前已取消
+            cancel();
+            throw new ExecutionException(cause);
+        }
+    }
+
+    /**
+     * 执行所有任务并按顺序返回结果，任一任务失败时取消其他任务
+     *
+     * @param tasks 任务集合
+     * @param <T>   泛型
+     * @return 结果链表，与任务集合的迭代顺序一致
+     * @throws InterruptedException 等待被中断
+     * @throws ExecutionException   任一任务执行失败
+     * @throws TimeoutException     超过截止时间
+     */
+    public <T> List<T> invokeAll(final Collection<? extends Callable<T>> tasks)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(fork(task));
+        }
+        join();
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    /**
+     * 执行所有任务并返回第一个成功完成的任务结果，同时取消其他任务
+     * <p>任务在子作用域中执行，截止时间及取消与本作用域联动。</p>
+     *
+     * @param tasks 任务集合
+     * @param <T>   泛型
+     * @return 第一个成功完成的任务结果
+     * @throws InterruptedException 等待被中断
+     * @throws ExecutionException   所有任务均执行失败，cause为最后一个失败任务抛出的异常
+     * @throws TimeoutException     超过截止时间
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T invokeAny(final Collection<? extends Callable<T>> tasks)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (tasks.isEmpty()) {
+            throw new IllegalArgumentException("tasks is empty");
+        }
+        TaskScope child = new TaskScope(executor, this, -1, TimeUnit.NANOSECONDS, maxConcurrency, true);
+        attach(child);
+        try {
+            for (Callable<T> task : tasks) {
+                child.fork(task);
+            }
+            child.await();
+            synchronized (child.lock) {
+                if (child.hasResult) {
+                    return (T) child.result;
+                }
+                if (child.lastFailure == null) {
+                    throw new CancellationException("TaskScope has been cancelled");
+                }
+                throw new ExecutionException(child.lastFailure);
+            }
+        } finally {
+            child.close();
+        }
+    }
+
+    /**
+     * 取消所有未完成的任务及子作用域，取消后提交的任务直接返回已取消的Future
+     */
+    public void cancel() {
+        List<ScopedTask<?>> tasks;
+        List<TaskScope> scopes;
+        synchronized (lock) {
+            if (isCancelled) {
+                return;
+            }
+            isCancelled = true;
+            tasks = new ArrayList<>(unfinishedTasks);
+            scopes = new ArrayList<>(children);
+        }
+        for (ScopedTask<?> task : tasks) {
+            task.cancel(true);
+        }
+        for (TaskScope child : scopes) {
+            child.cancel();
+        }
+    }
+
+    /**
+     * 关闭作用域，取消所有未完成的任务并从父作用域中移除，应在finally中调用
+     */
+    public void close() {
+        cancel();
+        if (parent != null) {
+            synchronized (parent.lock) {
+                parent.children.remove(this);
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        synchronized (lock) {
+            return isCancelled;
+        }
+    }
+
+    /**
+     * 获取距截止时间的剩余时间，任务中可据此设置网络请求等操作的超时时长
+     *
+     * @param unit 时间单位
+     * @return 剩余时间，未设置截止时间时返回{@link Long#MAX_VALUE}
+     */
+    public long getRemaining(final TimeUnit unit) {
+        if (!hasDeadline) {
+            return Long.MAX_VALUE;
+        }
+        return unit.convert(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    void attach(final TaskScope child) {
+        synchronized (lock) {
+            if (isCancelled) {
+                throw new CancellationException("TaskScope has been cancelled");
+            }
+            children.add(child);
+        }
+    }
+
+    /**
+     * 等待所有任务完成、任一任务失败或已有任务成功（{@link #isFirstSuccessWins}）
+     */
+    private void await() throws InterruptedException, TimeoutException {
+        try {
+            synchronized (lock) {
+                while (!unfinishedTasks.isEmpty() && failure == null && !hasResult) {
+                    if (!hasDeadline) {
+                        lock.wait();
+                        continue;
+                    }
+                    long remaining = deadlineNanos - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new TimeoutException("TaskScope deadline exceeded");
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                }
+            }
+        } catch (InterruptedException | TimeoutException e) {
+            cancel();
+            throw e;
+        }
+    }
+
+    /**
+     * 将已占用并发名额的任务提交到线程池，被拒绝时释放名额并继续提交下一个等待中的任务
+     */
+    private void dispatch(final ScopedTask<?> task) {
+        ScopedTask<?> next = task;
+        while (next != null) {
+            try {
+                executor.execute(next);
+                return;
+            } catch (RejectedExecutionException e) {
+                next.fail(e);
+                next = releaseSlot(next);
+            }
+        }
+    }
+
+    /**
+     * 释放任务占用的并发名额
+     * <p>在任务退出线程时调用，而不是在任务完成时：取消正在执行的任务时立即完成，但其线程可能仍在执行，
+     * 此时释放名额会使同时执行的任务数超过上限。</p>
+     *
+     * @return 占用释放的名额的等待中的任务，没有时返回null
+     */
+    private ScopedTask<?> releaseSlot(final ScopedTask<?> task) {
+        synchronized (lock) {
+            if (!task.isDispatched) {
+                return null;
+            }
+            task.isDispatched = false;
+            runningCount--;
+            ScopedTask<?> next = null;
+            if (!isCancelled && failure == null && !hasResult && runningCount < maxConcurrency) {
+                next = waitingTasks.poll();
+                if (next != null) {
+                    runningCount++;
+                    next.isDispatched = true;
+                }
+            }
+            return next;
+        }
+    }
+
+    private void onTaskDone(final ScopedTask<?> task) {
+        boolean isCancelNeeded = false;
+        synchronized (lock) {
+            if (!unfinishedTasks.remove(task)) {
+                return;
+            }
+            if (!task.isDispatched) {
+                waitingTasks.remove(task);
+            }
+            if (!task.isCancelled()) {
+                try {
+                    Object value = task.get();
+                    if (isFirstSuccessWins && !hasResult) {
+                        hasResult = true;
+                        result = value;
+                        isCancelNeeded = true;
+                    }
+                } catch (ExecutionException e) {
+                    if (isFirstSuccessWins) {
+                        lastFailure = e.getCause();
+                    } else if (failure == null) {
+                        failure = e.getCause();
+                        isCancelNeeded = true;
+                    }
+                } catch (InterruptedException | CancellationException ignored) {
+                    // 任务已完成，get不会阻塞
+                }
+            }
+            lock.notifyAll();
+        }
+        if (isCancelNeeded) {
+            cancel();
+        }
+    }
+
+    /**
+     * 作用域内的任务，执行时将所在作用域设置为 {@link #current()}，完成时通知作用域
+     */
+    private final class ScopedTask<T> extends FutureTask<T> {
+        /**
+         * 是否占用并发名额，即已提交到线程池且尚未退出线程，需持有作用域锁
+         */
+        private boolean isDispatched = false;
+
+        ScopedTask(final Callable<T> callable) {
+            super(callable);
+        }
+
+        @Override
+        public void run() {
+            TaskScope previous = CURRENT.get();
+            CURRENT.set(TaskScope.this);
+            try {
+                super.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+                dispatch(releaseSlot(this));
+            }
+        }
+
+        void fail(final Throwable t) {
+            setException(t);
+        }
+
+        @Override
+        protected void done() {
+            onTaskDone(this);
+        }
+    }
+}
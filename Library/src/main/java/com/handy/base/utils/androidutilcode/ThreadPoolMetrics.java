@@ -0,0 +1,325 @@
+package com.handy.base.utils.androidutilcode;
+
+import com.blankj.utilcode.util.LogUtils;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <pre>
+ *     desc  : 线程池运行统计
+ * </pre>
+ * <p>通过 {@link ThreadPoolUtils.Builder#setMetrics(int)} 开启，统计任务提交、完成、失败及被拒绝的次数，
+ * 按采样间隔统计任务在队列中的等待时间和执行时间，以及活动线程数、峰值线程数和队列长度，用于根据实际数据调整线程池参数。</p>
+ */
+public final class ThreadPoolMetrics {
+
+    private static ScheduledExecutorService dumpScheduler = null;
+
+    private final String name;
+    private final int sampleInterval;
+    private ThreadPoolExecutor executor;
+    private ScheduledFuture<?> dumpFuture = null;
+
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong sampledCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong totalExecuteNanos = new AtomicLong();
+    private final AtomicLong maxExecuteNanos = new AtomicLong();
+    private final AtomicInteger peakQueueSize = new AtomicInteger();
+
+    /**
+     * @param name           线程池名称，用于日志输出
+     * @param sampleInterval 采样间隔，每提交sampleInterval个任务统计一次等待时间及执行时间，1为统计所有任务
+     */
+    ThreadPoolMetrics(final String name, final int sampleInterval) {
+        this.name = name;
+        this.sampleInterval = Math.max(1, sampleInterval);
+    }
+
+    void attach(final ThreadPoolExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 任务提交时调用，需要采样时返回记录了提交时间的包装任务，否则返回原任务
+     */
+    Runnable wrap(final Runnable command) {
+        long count = submittedCount.incrementAndGet();
+        if (count % sampleInterval != 0) {
+            return command;
+        }
+        return new TimedRunnable(command, System.nanoTime());
+    }
+
+    /**
+     * 取出 {@link #wrap(Runnable)} 包装前的任务
+     */
+    static Runnable unwrap(final Runnable runnable) {
+        return runnable instanceof ThreadPoolMetrics.TimedRunnable ? ((ThreadPoolMetrics.TimedRunnable) runnable).command : runnable;
+    }
+
+    void recordQueueSize(final int queueSize) {
+        updateMax(peakQueueSize, queueSize);
+    }
+
+    void recordRejected() {
+        rejectedCount.incrementAndGet();
+    }
+
+    /**
+     * 任务执行完毕时调用，包括通过submit提交、异常保存在Future中的任务
+     */
+    void afterExecute(final Runnable r, final Throwable t) {
+        completedCount.incrementAndGet();
+        Throwable error = t;
+        Runnable task = r instanceof TimedRunnable ? ((TimedRunnable) r).command : r;
+        if (error == null && task instanceof Future<?> && ((Future<?>) task).isDone()) {
+            try {
+                ((Future<?>) task).get();
+            } catch (ExecutionException e) {
+                error = e.getCause();
+            } catch (Exception ignored) {
+                // 任务被取消或线程被中断，不计为失败
+            }
+        }
+        if (error != null) {
+            failedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 获取统计快照
+     */
+    public Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot();
+        snapshot.name = name;
+        snapshot.submittedCount = submittedCount.get();
+        snapshot.completedCount = completedCount.get();
+        snapshot.failedCount = failedCount.get();
+        snapshot.rejectedCount = rejectedCount.get();
+        long samples = sampledCount.get();
+        snapshot.sampledCount = samples;
+        snapshot.averageWaitMillis = samples == 0 ? 0 : totalWaitNanos.get() / 1e6 / samples;
+        snapshot.maxWaitMillis = maxWaitNanos.get() / 1e6;
+        snapshot.averageExecuteMillis = samples == 0 ? 0 : totalExecuteNanos.get() / 1e6 / samples;
+        snapshot.maxExecuteMillis = maxExecuteNanos.get() / 1e6;
+        snapshot.peakQueueSize = peakQueueSize.get();
+        if (executor != null) {
+            snapshot.poolSize = executor.getPoolSize();
+            snapshot.activeCount = executor.getActiveCount();
+            snapshot.largestPoolSize = executor.getLargestPoolSize();
+            snapshot.maximumPoolSize = executor.getMaximumPoolSize();
+            snapshot.queueSize = executor.getQueue().size();
+        }
+        return snapshot;
+    }
+
+    /**
+     * 定时将统计快照输出到日志
+     *
+     * @param period 输出间隔
+     * @param unit   时间单位
+     */
+    public synchronized void startDump(final long period, final TimeUnit unit) {
+        stopDump();
+        dumpFuture = getDumpScheduler().scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                LogUtils.d(snapshot().toString());
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * 停止定时输出统计快照
+     */
+    public synchronized void stopDump() {
+        if (dumpFuture != null) {
+            dumpFuture.cancel(false);
+            dumpFuture = null;
+        }
+    }
+
+    /**
+     * 所有线程池共用一个守护线程输出日志
+     */
+    private static synchronized ScheduledExecutorService getDumpScheduler() {
+        if (dumpScheduler == null) {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                    new ThreadPoolUtils.NamedThreadFactory("ThreadPoolMetrics", true, Thread.MIN_PRIORITY));
+            scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+            dumpScheduler = scheduler;
+        }
+        return dumpScheduler;
+    }
+
+    private static void updateMax(final AtomicLong max, final long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    private static void updateMax(final AtomicInteger max, final int value) {
+        int current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * 记录提交时间的采样任务
+     */
+    private final class TimedRunnable implements Runnable {
+        private final Runnable command;
+        private final long submitNanos;
+
+        TimedRunnable(final Runnable command, final long submitNanos) {
+            this.command = command;
+            this.submitNanos = submitNanos;
+        }
+
+        @Override
+        public void run() {
+            long startNanos = System.nanoTime();
+            try {
+                command.run();
+            } finally {
+                long waitNanos = startNanos - submitNanos;
+                long executeNanos = System.nanoTime() - startNanos;
+                sampledCount.incrementAndGet();
+                totalWaitNanos.addAndGet(waitNanos);
+                updateMax(maxWaitNanos, waitNanos);
+                totalExecuteNanos.addAndGet(executeNanos);
+                updateMax(maxExecuteNanos, executeNanos);
+            }
+        }
+    }
+
+    /**
+     * 线程池统计快照
+     */
+    public static final class Snapshot {
+        private String name;
+        private long submittedCount;
+        private long completedCount;
+        private long failedCount;
+        private long rejectedCount;
+        private long sampledCount;
+        private double averageWaitMillis;
+        private double maxWaitMillis;
+        private double averageExecuteMillis;
+        private double maxExecuteMillis;
+        private int poolSize;
+        private int activeCount;
+        private int largestPoolSize;
+        private int maximumPoolSize;
+        private int queueSize;
+        private int peakQueueSize;
+
+        private Snapshot() {
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getSubmittedCount() {
+            return submittedCount;
+        }
+
+        public long getCompletedCount() {
+            return completedCount;
+        }
+
+        public long getFailedCount() {
+            return failedCount;
+        }
+
+        /**
+         * 触发拒绝策略的次数
+         */
+        public long getRejectedCount() {
+            return rejectedCount;
+        }
+
+        public long getSampledCount() {
+            return sampledCount;
+        }
+
+        /**
+         * 采样任务在队列中的平均等待时间，单位：毫秒
+         */
+        public double getAverageWaitMillis() {
+            return averageWaitMillis;
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        /**
+         * 采样任务的平均执行时间，单位：毫秒
+         */
+        public double getAverageExecuteMillis() {
+            return averageExecuteMillis;
+        }
+
+        public double getMaxExecuteMillis() {
+            return maxExecuteMillis;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public int getActiveCount() {
+            return activeCount;
+        }
+
+        /**
+         * 线程数峰值
+         */
+        public int getLargestPoolSize() {
+            return largestPoolSize;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        /**
+         * 采样时记录的队列长度峰值
+         */
+        public int getPeakQueueSize() {
+            return peakQueueSize;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "ThreadPool[%s] threads=%d/%d(peak %d, max %d) queue=%d(peak %d) "
+                            + "submitted=%d completed=%d failed=%d rejected=%d "
+                            + "wait avg=%.2fms max=%.2fms execute avg=%.2fms max=%.2fms (samples %d)",
+                    name, activeCount, poolSize, largestPoolSize, maximumPoolSize, queueSize, peakQueueSize,
+                    submittedCount, completedCount, failedCount, rejectedCount,
+                    averageWaitMillis, maxWaitMillis, averageExecuteMillis, maxExecuteMillis, sampledCount);
+        }
+    }
+}
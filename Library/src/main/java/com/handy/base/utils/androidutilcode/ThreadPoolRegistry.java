@@ -0,0 +1,209 @@
+package com.handy.base.utils.androidutilcode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ *     desc  : 进程内共享的线程池
+ * </pre>
+ * <p>按名称懒加载并共享线程池，避免各功能模块各自创建线程池导致空闲线程过多：</p>
+ * <ul>
+ * <li>{@link #io()}：网络、文件等阻塞IO任务，空闲线程30秒后回收，线程数达到上限后在提交任务的线程中执行</li>
+ * <li>{@link #cpu()}：CPU密集型任务，线程数为CPU核心数，支持 {@link ThreadPoolUtils#parallelMap}</li>
+ * <li>{@link #db()}：数据库写操作，单线程串行执行</li>
+ * <li>{@link #dbRead()}：数据库读操作，最多 {@link #DB_READ_MAX_THREADS} 个线程并行查询，空闲线程30秒后回收</li>
+ * <li>{@link #serial(String)}：按名称区分的单线程串行队列，空闲30秒后回收线程；键的数量较多或不固定时使用
+ * {@link ThreadPoolUtils#executeSerial(Object, Runnable)}，在共享线程池中按键串行执行</li>
+ * </ul>
+ * <p>内置线程池的空闲线程均会超时回收，进程存活期间无需关闭，内存不足时也不应关闭。
+ * 共享线程池不与BaseApplication等组件的生命周期绑定，库内不会自动关闭，需要关闭时由调用方调用 {@link #shutdownAll(long, TimeUnit)}；
+ * 关闭后再次获取时重新创建，因此不要长期持有获取到的线程池对象。</p>
+ */
+public final class ThreadPoolRegistry {
+
+    public static final String IO = "io";
+    public static final String CPU = "cpu";
+    public static final String DB = "db";
+    public static final String DB_READ = "db-read";
+    /**
+     * 串行队列名称前缀
+     */
+    public static final String SERIAL = "serial-";
+    /**
+     * io线程池最大线程数
+     */
+    public static final int IO_MAX_THREADS = 64;
+    /**
+     * db-read线程池最大线程数，与WAL模式下系统SQLite连接池的默认连接数相近，更多线程只会等待连接
+     */
+    public static final int DB_READ_MAX_THREADS = 4;
+    /**
+     * 空闲线程存活时间，单位：秒
+     */
+    private static final long KEEP_ALIVE_SECONDS = 30L;
+    private static final String THREAD_NAME_PREFIX = "HandyBase-";
+
+    private static final Map<String, ThreadPoolUtils> pools = new LinkedHashMap<>();
+
+    private ThreadPoolRegistry() {
+        throw new UnsupportedOperationException("u can't instantiate me...");
+    }
+
+    public static ThreadPoolUtils io() {
+        return get(IO);
+    }
+
+    public static ThreadPoolUtils cpu() {
+        return get(CPU);
+    }
+
+    public static ThreadPoolUtils db() {
+        return get(DB);
+    }
+
+    public static ThreadPoolUtils dbRead() {
+        return get(DB_READ);
+    }
+
+    /**
+     * 获取按名称区分的单线程串行队列，同一名称的任务按提交顺序依次执行
+     *
+     * @param name 队列名称
+     */
+    public static ThreadPoolUtils serial(final String name) {
+        return get(SERIAL + name);
+    }
+
+    /**
+     * 获取线程池，内置线程池首次获取或已关闭时创建
+     *
+     * @param name 线程池名称，内置：{@link #IO}、{@link #CPU}、{@link #DB}、{@link #DB_READ}、{@link #SERIAL}+队列名称；其他名称需先调用 {@link #register(String, ThreadPoolUtils)}
+     * @return 线程池
+     */
+    public static synchronized ThreadPoolUtils get(final String name) {
+        ThreadPoolUtils pool = pools.get(name);
+        if (pool == null || pool.isShutDown()) {
+            pool = createPool(name);
+            pools.put(name, pool);
+        }
+        return pool;
+    }
+
+    /**
+     * 注册自定义线程池，随其他共享线程池一起输出状态及关闭
+     *
+     * @param name 线程池名称
+     * @param pool 线程池
+     * @throws IllegalStateException 同名线程池已存在且未关闭
+     */
+    public static synchronized void register(final String name, final ThreadPoolUtils pool) {
+        ThreadPoolUtils previous = pools.get(name);
+        if (previous != null && !previous.isShutDown()) {
+            throw new IllegalStateException("Executor " + name + " has already been registered.");
+        }
+        pools.put(name, pool);
+    }
+
+    private static ThreadPoolUtils createPool(final String name) {
+        switch (name) {
+            case IO:
+                return new ThreadPoolUtils.Builder(ThreadPoolUtils.CachedThread, 0)
+                        .setMaximumPoolSize(IO_MAX_THREADS)
+                        .setKeepAlive(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, false)
+                        .setRejectPolicy(ThreadPoolUtils.CallerRunsPolicy)
+                        .setThreadName(THREAD_NAME_PREFIX + IO, true)
+                        .build();
+            case CPU:
+                return new ThreadPoolUtils.Builder(ThreadPoolUtils.WorkStealing, 0)
+                        .setThreadName(THREAD_NAME_PREFIX + CPU, true)
+                        .build();
+            case DB_READ:
+                return new ThreadPoolUtils.Builder(ThreadPoolUtils.FixedThread, DB_READ_MAX_THREADS)
+                        .setKeepAlive(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, true)
+                        .setThreadName(THREAD_NAME_PREFIX + DB_READ, true)
+                        .build();
+            default:
+                if (DB.equals(name) || name.startsWith(SERIAL)) {
+                    return new ThreadPoolUtils.Builder(ThreadPoolUtils.SingleThread, 1)
+                            .setKeepAlive(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, true)
+                            .setThreadName(THREAD_NAME_PREFIX + name, true)
+                            .build();
+                }
+                throw new IllegalArgumentException("Unknown executor " + name + ", register it first.");
+        }
+    }
+
+    /**
+     * 输出所有共享线程池的线程数、活动线程数及等待任务数
+     */
+    public static synchronized String dump() {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append("==========线程池信息==========").append("\n");
+        stringBuilder.append("进程线程数：  【").append(Thread.activeCount()).append("】").append("\n");
+        for (Map.Entry<String, ThreadPoolUtils> entry : pools.entrySet()) {
+            ThreadPoolUtils pool = entry.getValue();
+            stringBuilder.append(entry.getKey()).append("：  【线程数 ").append(pool.getPoolSize())
+                    .append("，活动线程数 ").append(pool.getActiveCount())
+                    .append("，等待任务数 ").append(pool.getQueueSize())
+                    .append(pool.isShutDown() ? "，已关闭" : "").append("】").append("\n");
+        }
+        stringBuilder.append("================================");
+        return stringBuilder.toString();
+    }
+
+    /**
+     * 按顺序关闭所有共享线程池
+     * <p>先关闭其他线程池并等待其中的任务执行完毕，最后关闭 {@link #db()}，保证其他任务提交的数据库写操作能够执行；
+     * 关闭后再次获取内置线程池时重新创建，通过 {@link #register(String, ThreadPoolUtils)} 注册的线程池需重新注册。</p>
+     * <p>该方法会阻塞直到任务执行完毕或超时，不要在主线程中调用；Android不保证进程退出前回调
+     * {@link android.app.Application#onTerminate()}，因此也不要依赖其关闭线程池。</p>
+     *
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     * @return {@code true}: 所有任务均已执行完毕<br>{@code false}: 等待超时或被中断
+     */
+    public static boolean shutdownAll(final long timeout, final TimeUnit unit) {
+        List<ThreadPoolUtils> others = new ArrayList<>();
+        synchronized (ThreadPoolRegistry.class) {
+            for (Map.Entry<String, ThreadPoolUtils> entry : pools.entrySet()) {
+                if (!DB.equals(entry.getKey())) {
+                    others.add(entry.getValue());
+                }
+            }
+            pools.keySet().retainAll(Collections.singleton(DB));
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        boolean isTerminated = true;
+        try {
+            for (ThreadPoolUtils pool : others) {
+                pool.shutDown();
+            }
+            // 等待期间其他线程池的任务仍可向db线程池提交写操作
+            for (ThreadPoolUtils pool : others) {
+                isTerminated &= pool.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            isTerminated = false;
+        }
+        ThreadPoolUtils dbPool;
+        synchronized (ThreadPoolRegistry.class) {
+            dbPool = pools.remove(DB);
+        }
+        if (dbPool != null) {
+            dbPool.shutDown();
+            try {
+                isTerminated &= dbPool.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                isTerminated = false;
+            }
+        }
+        return isTerminated;
+    }
+}
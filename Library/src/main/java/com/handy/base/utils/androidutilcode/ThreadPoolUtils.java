@@ -1,20 +1,41 @@
 package com.handy.base.utils.androidutilcode;
 
+import android.annotation.TargetApi;
+import android.os.Build;
 import android.support.annotation.IntDef;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.functions.Function;
 
 /**
  * <pre>
@@ -30,13 +51,48 @@ public final class ThreadPoolUtils {
     public static final int FixedThread = 1;
     public static final int CachedThread = 2;
     public static final int SingleThread = 3;
+    public static final int WorkStealing = 4;
+    public static final int WheelTimer = 5;
 
-    @IntDef({ScheduledThread, FixedThread, CachedThread, SingleThread})
+    @IntDef({ScheduledThread, FixedThread, CachedThread, SingleThread, WorkStealing, WheelTimer})
     @Retention(RetentionPolicy.SOURCE)
     public @interface Type {
     }
 
+    public static final int ArrayQueue = 0;
+    public static final int LinkedQueue = 1;
+    public static final int DirectHandoffQueue = 2;
+    public static final int PriorityQueue = 3;
+
+    @IntDef({ArrayQueue, LinkedQueue, DirectHandoffQueue, PriorityQueue})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface QueueType {
+    }
+
+    public static final int AbortPolicy = 0;
+    public static final int CallerRunsPolicy = 1;
+    public static final int DiscardOldestPolicy = 2;
+    public static final int BlockPolicy = 3;
+
+    @IntDef({AbortPolicy, CallerRunsPolicy, DiscardOldestPolicy, BlockPolicy})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface RejectPolicy {
+    }
+
+    /**
+     * 任务优先级，数值越大越优先执行，用于PriorityQueue队列的线程池
+     */
+    public static final int PRIORITY_LOW = 0;
+    public static final int PRIORITY_NORMAL = 5;
+    public static final int PRIORITY_HIGH = 10;
+    /**
+     * 默认的优先级老化时间，单位：毫秒
+     */
+    public static final long DEFAULT_PRIORITY_AGING_MILLIS = 100L;
+
     private ExecutorService exec;
+    private ThreadPoolMetrics metrics = null;
+    private volatile KeyedSerialExecutor keyedSerialExecutor = null;
 
     private ThreadPoolUtils() {
         throw new UnsupportedOperationException("u can't instantiate me...");
@@ -44,58 +100,79 @@ public final class ThreadPoolUtils {
 
     /**
      * ThreadPoolUtils构造函数
+     * <p>与 {@link Executors} 对应的工厂方法参数一致：Fixed、Single线程池的队列无界，Cached线程池的线程数无界；
+     * 需要限制队列长度、线程数或设置拒绝策略时使用 {@link Builder}。</p>
+     * <p>Single线程池不再使用 {@link Executors#newSingleThreadExecutor()} 的包装对象，其唯一线程空闲60秒后回收。</p>
      *
      * @param type         线程池类型
-     * @param corePoolSize 只对Fixed和Scheduled线程池起效
+     * @param corePoolSize 只对Fixed、Scheduled、WorkStealing和WheelTimer线程池起效，WorkStealing线程池小于等于0时为CPU核心数
      */
     public ThreadPoolUtils(@Type final int type, final int corePoolSize) {
+        this.exec = new Builder(type, corePoolSize).buildExecutor(null);
+    }
+
+    private ThreadPoolUtils(final ExecutorService exec, final ThreadPoolMetrics metrics) {
+        this.exec = exec;
+        this.metrics = metrics;
+    }
+
+    /**
+     * 获取线程池运行统计
+     *
+     * @return 通过 {@link Builder#setMetrics(int)} 开启统计时返回统计对象，否则返回null
+     */
+    public ThreadPoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 获取线程池当前的线程数
+     *
+     * @return 线程数，无法获取时返回-1
+     */
+    public int getPoolSize() {
+        ExecutorService executor = getWorkerExecutor();
+        if (executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executor).getPoolSize();
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP && ForkJoinSupport.isForkJoinPool(executor)) {
+            return ForkJoinSupport.getPoolSize(executor);
+        }
+        return -1;
+    }
+
+    /**
+     * 获取线程池中正在执行任务的线程数
+     *
+     * @return 活动线程数，无法获取时返回-1
+     */
+    public int getActiveCount() {
+        ExecutorService executor = getWorkerExecutor();
+        if (executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executor).getActiveCount();
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP && ForkJoinSupport.isForkJoinPool(executor)) {
+            return ForkJoinSupport.getActiveCount(executor);
+        }
+        return -1;
+    }
 
-        switch (type) {
-            case ScheduledThread:
-                // 构造有定时功能的线程池
-//        new ThreadPoolExecutor(
-//                corePoolSize,
-//                Integer.MAX_VALUE,
-//                10L,
-//                TimeUnit.MILLISECONDS,
-//                new DelayedWorkQueue()
-//        );
-                exec = Executors.newScheduledThreadPool(corePoolSize);
-                break;
-            case FixedThread:
-                // 构造一个固定线程数目的线程池
-//                new ThreadPoolExecutor(
-//                        corePoolSize,
-//                        corePoolSize,
-//                        0L,
-//                        TimeUnit.MILLISECONDS,
-//                        new LinkedBlockingQueue<Runnable>()
-//                );
-                exec = Executors.newFixedThreadPool(corePoolSize);
-                break;
-            case SingleThread:
-                // 构造一个只支持一个线程的线程池,相当于newFixedThreadPool(1)
-//                new ThreadPoolExecutor(
-//                        1,
-//                        1,
-//                        0L,
-//                        TimeUnit.MILLISECONDS,
-//                        new LinkedBlockingQueue<Runnable>()
-//                );
-                exec = Executors.newSingleThreadExecutor();
-                break;
-            case CachedThread:
-                // 构造一个缓冲功能的线程池
-//                new ThreadPoolExecutor(
-//                        0,
-//                        Integer.MAX_VALUE,
-//                        60L,
-//                        TimeUnit.SECONDS,
-//                        new SynchronousQueue<Runnable>()
-//                );
-                exec = Executors.newCachedThreadPool();
-                break;
+    /**
+     * 获取等待执行的任务数，WheelTimer线程池包括未到期的定时任务
+     *
+     * @return 等待执行的任务数，无法获取时返回-1
+     */
+    public int getQueueSize() {
+        ExecutorService executor = getWorkerExecutor();
+        int pendingCount = exec instanceof HashedWheelScheduler ? ((HashedWheelScheduler) exec).getPendingCount() : 0;
+        if (executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executor).getQueue().size() + pendingCount;
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP && ForkJoinSupport.isForkJoinPool(executor)) {
+            return ForkJoinSupport.getQueueSize(executor);
         }
+        return -1;
+    }
+
+    private ExecutorService getWorkerExecutor() {
+        return exec instanceof HashedWheelScheduler ? ((HashedWheelScheduler) exec).getWorker() : exec;
     }
 
     /**
@@ -108,6 +185,72 @@ public final class ThreadPoolUtils {
         exec.execute(command);
     }
 
+    /**
+     * 按优先级执行给定的命令
+     * <p>只对使用 {@link #PriorityQueue} 队列的线程池起效，其他线程池忽略优先级按提交顺序执行。</p>
+     *
+     * @param command  命令
+     * @param priority 优先级，如：{@link #PRIORITY_HIGH}、{@link #PRIORITY_NORMAL}、{@link #PRIORITY_LOW}
+     */
+    public void execute(final Runnable command, final int priority) {
+        if (exec instanceof TaskThreadPoolExecutor) {
+            ((TaskThreadPoolExecutor) exec).execute(command, priority);
+        } else {
+            exec.execute(command);
+        }
+    }
+
+    /**
+     * 按键串行执行给定的命令
+     * <p>相同键的命令按提交顺序依次执行，不同键的命令在本线程池中并行执行，每个键不单独占用线程，详见 {@link KeyedSerialExecutor}。</p>
+     *
+     * @param key     键，如：用户ID、文件路径
+     * @param command 命令
+     */
+    public void executeSerial(final Object key, final Runnable command) {
+        getKeyedSerialExecutor().execute(key, command);
+    }
+
+    /**
+     * 按键串行提交一个Callable任务用于执行
+     *
+     * @param key  键
+     * @param task 任务
+     * @param <T>  泛型
+     * @return 表示任务等待完成的Future, 该Future的{@code get}方法在成功完成时将会返回该任务的结果。
+     */
+    public <T> Future<T> submitSerial(final Object key, final Callable<T> task) {
+        return getKeyedSerialExecutor().submit(key, task);
+    }
+
+    /**
+     * 按键串行提交一个Runnable任务用于执行
+     *
+     * @param key  键
+     * @param task 任务
+     * @return 表示任务等待完成的Future, 该Future的{@code get}方法在成功完成时将会返回null结果。
+     */
+    public Future<?> submitSerial(final Object key, final Runnable task) {
+        return getKeyedSerialExecutor().submit(key, task);
+    }
+
+    /**
+     * 获取在本线程池中执行的按键串行执行器
+     */
+    public KeyedSerialExecutor getKeyedSerialExecutor() {
+        KeyedSerialExecutor executor = keyedSerialExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = keyedSerialExecutor;
+                if (executor == null) {
+                    executor = new KeyedSerialExecutor(exec);
+                    keyedSerialExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
     /**
      * 在未来某个时间执行给定的命令链表
      * <p>该命令可能在新的线程、已入池的线程或者正调用的线程中执行，这由 Executor 实现决定。</p>
@@ -134,10 +277,15 @@ public final class ThreadPoolUtils {
      * <p>试图停止所有正在执行的活动任务，暂停处理正在等待的任务，并返回等待执行的任务列表。</p>
      * <p>无法保证能够停止正在处理的活动执行任务，但是会尽力尝试。</p>
      *
-     * @return 等待执行的任务的列表
+     * @return 等待执行的任务的列表，按键串行执行的任务队列展开为其中尚未执行的任务
      */
     public List<Runnable> shutDownNow() {
-        return exec.shutdownNow();
+        List<Runnable> runnables = exec.shutdownNow();
+        List<Runnable> tasks = new ArrayList<>(runnables.size());
+        for (Runnable runnable : runnables) {
+            KeyedSerialExecutor.drainTo(unwrap(runnable), tasks);
+        }
+        return tasks;
     }
 
     /**
@@ -208,6 +356,33 @@ public final class ThreadPoolUtils {
         return exec.submit(task);
     }
 
+    /**
+     * 按优先级提交一个Callable任务用于执行
+     *
+     * @param task     任务
+     * @param priority 优先级，只对使用 {@link #PriorityQueue} 队列的线程池起效
+     * @param <T>      泛型
+     * @return 表示任务等待完成的Future, 该Future的{@code get}方法在成功完成时将会返回该任务的结果。
+     */
+    public <T> Future<T> submit(final Callable<T> task, final int priority) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(future, priority);
+        return future;
+    }
+
+    /**
+     * 按优先级提交一个Runnable任务用于执行
+     *
+     * @param task     任务
+     * @param priority 优先级，只对使用 {@link #PriorityQueue} 队列的线程池起效
+     * @return 表示任务等待完成的Future, 该Future的{@code get}方法在成功完成时将会返回null结果。
+     */
+    public Future<?> submit(final Runnable task, final int priority) {
+        FutureTask<Void> future = new FutureTask<>(task, null);
+        execute(future, priority);
+        return future;
+    }
+
     /**
      * 执行给定的任务
      * <p>当所有任务完成时，返回保持任务状态和结果的Future列表。
@@ -287,6 +462,95 @@ public final class ThreadPoolUtils {
         return exec.invokeAny(tasks, timeout, unit);
     }
 
+    /**
+     * 创建结构化任务作用域
+     * <p>与 {@link #invokeAll(Collection, long, TimeUnit)} 不同，作用域超时或任一任务失败时立即取消其他任务，
+     * 并限制同时执行的任务数；在其他作用域的任务中调用时，新作用域作为其子作用域，截止时间不晚于父作用域并随父作用域一起取消。</p>
+     *
+     * @param timeout        超时时长，小于0为不限时
+     * @param unit           时间单位
+     * @param maxConcurrency 同时执行的最大任务数，{@link TaskScope#UNBOUNDED} 为不限制
+     * @return 任务作用域，使用完毕后需调用 {@link TaskScope#close()}
+     */
+    public TaskScope openScope(final long timeout, final TimeUnit unit, final int maxConcurrency) {
+        TaskScope parent = TaskScope.current();
+        TaskScope scope = new TaskScope(exec, parent, timeout, unit, maxConcurrency, false);
+        if (parent != null) {
+            parent.attach(scope);
+        }
+        return scope;
+    }
+
+    /**
+     * 创建不限制并发任务数的结构化任务作用域
+     *
+     * @param timeout 超时时长，小于0为不限时
+     * @param unit    时间单位
+     * @return 任务作用域，使用完毕后需调用 {@link TaskScope#close()}
+     */
+    public TaskScope openScope(final long timeout, final TimeUnit unit) {
+        return openScope(timeout, unit, TaskScope.UNBOUNDED);
+    }
+
+    /**
+     * 并行转换集合中的每个元素
+     * <p>WorkStealing线程池将集合递归拆分为子任务，空闲线程从其他线程的任务队列中窃取子任务执行，适用于图片处理、拼音索引、JSON解析等CPU密集型批量任务；
+     * 其他线程池将集合按线程数分段后通过 {@link #invokeAll(Collection)} 执行，此时不能在同一线程池的任务中调用，否则可能因线程耗尽而死锁。</p>
+     *
+     * @param list   待转换的集合
+     * @param mapper 转换函数
+     * @param <T>    元素类型
+     * @param <R>    转换结果类型
+     * @return 转换结果，顺序与集合一致
+     * @throws Exception 任一元素转换失败时抛出该元素的异常
+     */
+    public <T, R> List<R> parallelMap(final List<T> list, final Function<? super T, ? extends R> mapper) throws Exception {
+        if (list.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP && ForkJoinSupport.isForkJoinPool(exec)) {
+            return ForkJoinSupport.parallelMap(exec, list, mapper);
+        }
+        // Cached线程池的核心线程数为0，按最大线程数计算并以CPU核心数为上限
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        if (exec instanceof ThreadPoolExecutor) {
+            parallelism = Math.max(1, Math.min(((ThreadPoolExecutor) exec).getMaximumPoolSize(), parallelism));
+        }
+        final Object[] results = new Object[list.size()];
+        int chunkSize = (list.size() + parallelism - 1) / parallelism;
+        List<Callable<Void>> tasks = new ArrayList<>(parallelism);
+        for (int start = 0; start < list.size(); start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(list.size(), start + chunkSize);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    for (int i = from; i < to; i++) {
+                        results[i] = mapper.apply(list.get(i));
+                    }
+                    return null;
+                }
+            });
+        }
+        for (Future<Void> future : exec.invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+        return toList(results);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> List<R> toList(final Object[] results) {
+        List<R> list = new ArrayList<>(results.length);
+        for (Object result : results) {
+            list.add((R) result);
+        }
+        return list;
+    }
+
     /**
      * 延迟执行Runnable命令
      *
@@ -361,4 +625,573 @@ public final class ThreadPoolUtils {
         return ((ScheduledExecutorService) exec)
                 .scheduleWithFixedDelay(command, initialDelay, delay, unit);
     }
+
+    /**
+     * 线程池构造器
+     * <p>按线程池类型预置与 {@link Executors} 一致的参数，可再单独设置核心/最大线程数、空闲存活时间、任务队列类型及容量、拒绝策略和线程名称。</p>
+     * <p>注意：ThreadPoolExecutor只有在队列已满时才会创建超过核心线程数的线程，队列无界时最大线程数不起作用。</p>
+     * <pre>
+     * ThreadPoolUtils pool = new ThreadPoolUtils.Builder(ThreadPoolUtils.FixedThread, 4)
+     *         .setMaximumPoolSize(8)
+     *         .setQueue(ThreadPoolUtils.ArrayQueue, 128)
+     *         .setRejectPolicy(ThreadPoolUtils.CallerRunsPolicy)
+     *         .setThreadName("image", true)
+     *         .build();
+     * </pre>
+     */
+    public static final class Builder {
+        private final int type;
+        private int corePoolSize;
+        private int maximumPoolSize;
+        private long keepAliveTime;
+        private TimeUnit keepAliveUnit;
+        private boolean allowCoreThreadTimeOut = false;
+        private int queueType;
+        private int queueCapacity = Integer.MAX_VALUE;
+        private int rejectPolicy = AbortPolicy;
+        private long blockTimeout;
+        private TimeUnit blockTimeoutUnit = TimeUnit.MILLISECONDS;
+        private String threadName = null;
+        private boolean isDaemon = false;
+        private int threadPriority = Thread.NORM_PRIORITY;
+        private int metricsSampleInterval = 0;
+        private long priorityAgingNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_PRIORITY_AGING_MILLIS);
+        private long tickDuration = HashedWheelScheduler.DEFAULT_TICK_MILLIS;
+        private TimeUnit tickUnit = TimeUnit.MILLISECONDS;
+        private int ticksPerWheel = HashedWheelScheduler.DEFAULT_TICKS_PER_WHEEL;
+
+        /**
+         * @param type         线程池类型
+         * @param corePoolSize 只对Fixed、Scheduled、WorkStealing和WheelTimer线程池起效，WorkStealing线程池小于等于0时为CPU核心数
+         */
+        public Builder(@Type final int type, final int corePoolSize) {
+            this.type = type;
+            switch (type) {
+                case ScheduledThread:
+                    // 构造有定时功能的线程池，任务队列为内部的延迟队列，不可配置
+                    this.corePoolSize = corePoolSize;
+                    this.maximumPoolSize = Integer.MAX_VALUE;
+                    this.keepAliveTime = 10L;
+                    this.keepAliveUnit = TimeUnit.MILLISECONDS;
+                    break;
+                case SingleThread:
+                    // 构造一个只支持一个线程的线程池,相当于newFixedThreadPool(1)
+                    // Executors.newSingleThreadExecutor返回的包装对象在被回收时会关闭线程池，直接使用ThreadPoolExecutor时没有此保护，
+                    // 因此空闲线程60秒后回收，未调用shutdown而被丢弃的线程池不会一直占用线程；有新任务时重新创建线程，仍按提交顺序执行
+                    this.corePoolSize = 1;
+                    this.maximumPoolSize = 1;
+                    this.keepAliveTime = 60L;
+                    this.keepAliveUnit = TimeUnit.SECONDS;
+                    this.allowCoreThreadTimeOut = true;
+                    this.queueType = LinkedQueue;
+                    break;
+                case CachedThread:
+                    // 构造一个缓冲功能的线程池
+                    this.corePoolSize = 0;
+                    this.maximumPoolSize = Integer.MAX_VALUE;
+                    this.keepAliveTime = 60L;
+                    this.keepAliveUnit = TimeUnit.SECONDS;
+                    this.queueType = DirectHandoffQueue;
+                    break;
+                case WorkStealing:
+                    // 构造一个工作窃取线程池，Android 5.0以下使用相同线程数的Fixed线程池代替
+                    this.corePoolSize = corePoolSize > 0 ? corePoolSize : Runtime.getRuntime().availableProcessors();
+                    this.maximumPoolSize = this.corePoolSize;
+                    this.keepAliveTime = 0L;
+                    this.keepAliveUnit = TimeUnit.MILLISECONDS;
+                    this.queueType = LinkedQueue;
+                    break;
+                case WheelTimer:
+                    // 构造一个时间轮定时线程池，到期的任务由固定线程数目的工作线程执行
+                case FixedThread:
+                default:
+                    // 构造一个固定线程数目的线程池
+                    this.corePoolSize = corePoolSize;
+                    this.maximumPoolSize = corePoolSize;
+                    this.keepAliveTime = 0L;
+                    this.keepAliveUnit = TimeUnit.MILLISECONDS;
+                    this.queueType = LinkedQueue;
+                    break;
+            }
+        }
+
+        /**
+         * 设置核心线程数
+         */
+        public Builder setCorePoolSize(final int corePoolSize) {
+            this.corePoolSize = corePoolSize;
+            return this;
+        }
+
+        /**
+         * 设置最大线程数，只在队列有界时起效
+         */
+        public Builder setMaximumPoolSize(final int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+            return this;
+        }
+
+        /**
+         * 设置超过核心线程数的空闲线程存活时间
+         *
+         * @param keepAliveTime          存活时间
+         * @param unit                   时间单位
+         * @param allowCoreThreadTimeOut 核心线程空闲超时后是否同样回收
+         */
+        public Builder setKeepAlive(final long keepAliveTime, final TimeUnit unit, final boolean allowCoreThreadTimeOut) {
+            this.keepAliveTime = keepAliveTime;
+            this.keepAliveUnit = unit;
+            this.allowCoreThreadTimeOut = allowCoreThreadTimeOut;
+            return this;
+        }
+
+        /**
+         * 设置任务队列，对Scheduled线程池无效
+         *
+         * @param queueType 队列类型：ArrayQueue-数组有界队列；LinkedQueue-链表队列；DirectHandoffQueue-不缓存任务，直接交给线程执行；
+         *                  PriorityQueue-无界优先级队列，按优先级执行，相同优先级按提交顺序执行，见 {@link #setPriorityAging(long, TimeUnit)}
+         * @param capacity  队列容量，对DirectHandoffQueue、PriorityQueue无效；LinkedQueue传入Integer.MAX_VALUE时为无界队列
+         */
+        public Builder setQueue(@QueueType final int queueType, final int capacity) {
+            this.queueType = queueType;
+            this.queueCapacity = capacity;
+            return this;
+        }
+
+        /**
+         * 设置使用PriorityQueue队列时的优先级老化时间，防止低优先级任务因持续提交的高优先级任务而无法执行
+         * <p>任务每低一个优先级，相当于晚 agingTime 提交：如老化时间为100毫秒时，PRIORITY_LOW的任务等待1秒后，
+         * 将先于之后提交的PRIORITY_HIGH任务执行。</p>
+         * <p>注意：优先级队列无界，线程数不会超过核心线程数，Cached线程池使用优先级队列时需设置核心线程数。</p>
+         *
+         * @param agingTime 每个优先级对应的等待时间
+         * @param unit      时间单位
+         */
+        public Builder setPriorityAging(final long agingTime, final TimeUnit unit) {
+            this.queueType = PriorityQueue;
+            this.priorityAgingNanos = unit.toNanos(agingTime);
+            return this;
+        }
+
+        /**
+         * 设置WheelTimer线程池的时间轮参数
+         * <p>定时任务的到期时间精度为一个时间刻度；槽位数越多，延迟较长的任务在时间轮中需要轮转的圈数越少。</p>
+         *
+         * @param tickDuration  时间刻度，默认：10毫秒
+         * @param unit          时间单位
+         * @param ticksPerWheel 时间轮槽位数，默认：512
+         */
+        public Builder setWheel(final long tickDuration, final TimeUnit unit, final int ticksPerWheel) {
+            this.tickDuration = tickDuration;
+            this.tickUnit = unit;
+            this.ticksPerWheel = ticksPerWheel;
+            return this;
+        }
+
+        /**
+         * 设置线程池已关闭，或队列已满且线程数达到最大值时的拒绝策略
+         *
+         * @param rejectPolicy 拒绝策略：AbortPolicy-抛出RejectedExecutionException（默认）；CallerRunsPolicy-在提交任务的线程中执行；
+         *                     DiscardOldestPolicy-丢弃队列中最早的任务后重新提交；BlockPolicy使用 {@link #setBlockPolicy(long, TimeUnit)} 设置
+         */
+        public Builder setRejectPolicy(@RejectPolicy final int rejectPolicy) {
+            this.rejectPolicy = rejectPolicy;
+            return this;
+        }
+
+        /**
+         * 设置拒绝策略为阻塞提交任务的线程，直到队列有空位或等待超时，超时后抛出RejectedExecutionException
+         *
+         * @param timeout 最长等待时间
+         * @param unit    时间单位
+         */
+        public Builder setBlockPolicy(final long timeout, final TimeUnit unit) {
+            this.rejectPolicy = BlockPolicy;
+            this.blockTimeout = timeout;
+            this.blockTimeoutUnit = unit;
+            return this;
+        }
+
+        /**
+         * 设置线程名称，线程名为：name-序号
+         *
+         * @param name     线程名称前缀，便于在线程转储及性能分析工具中区分线程池
+         * @param isDaemon 是否为守护线程，守护线程不会阻止进程退出
+         */
+        public Builder setThreadName(final String name, final boolean isDaemon) {
+            this.threadName = name;
+            this.isDaemon = isDaemon;
+            return this;
+        }
+
+        /**
+         * 设置线程优先级，只在设置了线程名称时起效
+         *
+         * @param threadPriority 线程优先级，Thread.MIN_PRIORITY ~ Thread.MAX_PRIORITY
+         */
+        public Builder setThreadPriority(final int threadPriority) {
+            this.threadPriority = threadPriority;
+            return this;
+        }
+
+        /**
+         * 开启线程池运行统计，通过 {@link ThreadPoolUtils#getMetrics()} 获取，对Scheduled线程池无效
+         * <p>任务数及拒绝次数每次都会统计；等待时间及执行时间每 sampleInterval 个任务采样一次，采样间隔越大开销越小。</p>
+         *
+         * @param sampleInterval 采样间隔，1为统计所有任务
+         */
+        public Builder setMetrics(final int sampleInterval) {
+            this.metricsSampleInterval = Math.max(1, sampleInterval);
+            return this;
+        }
+
+        public ThreadPoolUtils build() {
+            ThreadPoolMetrics metrics = null;
+            if (metricsSampleInterval > 0 && type != ScheduledThread && type != WorkStealing) {
+                metrics = new ThreadPoolMetrics(threadName != null ? threadName : "ThreadPool-" + type, metricsSampleInterval);
+            }
+            return new ThreadPoolUtils(buildExecutor(metrics), metrics);
+        }
+
+        private ExecutorService buildExecutor(final ThreadPoolMetrics metrics) {
+            if (type == WorkStealing && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                return ForkJoinSupport.newPool(corePoolSize, threadName);
+            }
+            ThreadFactory threadFactory = threadName == null
+                    ? Executors.defaultThreadFactory()
+                    : new NamedThreadFactory(threadName, isDaemon, threadPriority);
+            RejectedExecutionHandler handler = buildRejectedExecutionHandler();
+            ThreadPoolExecutor executor;
+            if (type == ScheduledThread) {
+                executor = new ScheduledThreadPoolExecutor(corePoolSize, threadFactory, handler);
+            } else if (metrics != null || queueType == PriorityQueue) {
+                executor = new TaskThreadPoolExecutor(corePoolSize, maximumPoolSize, keepAliveTime, keepAliveUnit,
+                        buildQueue(), threadFactory, metrics == null ? handler : new CountingRejectedExecutionHandler(handler, metrics),
+                        metrics, queueType == PriorityQueue ? priorityAgingNanos : -1);
+            } else {
+                executor = new ThreadPoolExecutor(corePoolSize, maximumPoolSize, keepAliveTime, keepAliveUnit,
+                        buildQueue(), threadFactory, handler);
+            }
+            if (allowCoreThreadTimeOut && keepAliveTime > 0) {
+                executor.allowCoreThreadTimeOut(true);
+            }
+            if (type == WheelTimer) {
+                return new HashedWheelScheduler(executor, tickDuration, tickUnit, ticksPerWheel,
+                        new NamedThreadFactory((threadName != null ? threadName : "HashedWheelTimer") + "-tick", true, Thread.NORM_PRIORITY));
+            }
+            return executor;
+        }
+
+        private BlockingQueue<Runnable> buildQueue() {
+            switch (queueType) {
+                case ArrayQueue:
+                    return new ArrayBlockingQueue<>(queueCapacity);
+                case DirectHandoffQueue:
+                    return new SynchronousQueue<>();
+                case PriorityQueue:
+                    return new PriorityBlockingQueue<>();
+                case LinkedQueue:
+                default:
+                    return new LinkedBlockingQueue<>(queueCapacity);
+            }
+        }
+
+        private RejectedExecutionHandler buildRejectedExecutionHandler() {
+            switch (rejectPolicy) {
+                case CallerRunsPolicy:
+                    return new ThreadPoolExecutor.CallerRunsPolicy();
+                case DiscardOldestPolicy:
+                    return new DiscardOldestRejectedExecutionHandler();
+                case BlockPolicy:
+                    return new BlockRejectedExecutionHandler(blockTimeout, blockTimeoutUnit);
+                case AbortPolicy:
+                default:
+                    return new ThreadPoolExecutor.AbortPolicy();
+            }
+        }
+    }
+
+    /**
+     * ForkJoinPool相关操作，Android 5.0及以上才可加载
+     */
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    static final class ForkJoinSupport {
+
+        static ExecutorService newPool(final int parallelism, final String threadName) {
+            ForkJoinPool.ForkJoinWorkerThreadFactory factory = ForkJoinPool.defaultForkJoinWorkerThreadFactory;
+            if (threadName != null) {
+                final AtomicInteger threadNumber = new AtomicInteger(1);
+                factory = new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+                    @Override
+                    public ForkJoinWorkerThread newThread(final ForkJoinPool pool) {
+                        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                        thread.setName(threadName + "-" + threadNumber.getAndIncrement());
+                        return thread;
+                    }
+                };
+            }
+            return new ForkJoinPool(parallelism, factory, null, false);
+        }
+
+        static boolean isForkJoinPool(final ExecutorService exec) {
+            return exec instanceof ForkJoinPool;
+        }
+
+        static int getPoolSize(final ExecutorService exec) {
+            return ((ForkJoinPool) exec).getPoolSize();
+        }
+
+        static int getActiveCount(final ExecutorService exec) {
+            return ((ForkJoinPool) exec).getActiveThreadCount();
+        }
+
+        static int getQueueSize(final ExecutorService exec) {
+            ForkJoinPool pool = (ForkJoinPool) exec;
+            return (int) Math.min(Integer.MAX_VALUE, pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount());
+        }
+
+        static <T, R> List<R> parallelMap(final ExecutorService exec, final List<T> list, final Function<? super T, ? extends R> mapper) throws Exception {
+            ForkJoinPool pool = (ForkJoinPool) exec;
+            Object[] results = new Object[list.size()];
+            // 每个线程约拆分出4个子任务，便于空闲线程窃取
+            int threshold = Math.max(1, list.size() / (pool.getParallelism() * 4));
+            try {
+                pool.invoke(new MapAction<>(list, mapper, results, 0, list.size(), threshold));
+            } catch (MapException e) {
+                throw (Exception) e.getCause();
+            }
+            return toList(results);
+        }
+    }
+
+    /**
+     * 递归拆分的转换任务
+     */
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static final class MapAction<T, R> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final List<T> list;
+        private final Function<? super T, ? extends R> mapper;
+        private final Object[] results;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        MapAction(final List<T> list, final Function<? super T, ? extends R> mapper, final Object[] results,
+                  final int from, final int to, final int threshold) {
+            this.list = list;
+            this.mapper = mapper;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    try {
+                        results[i] = mapper.apply(list.get(i));
+                    } catch (Exception e) {
+                        throw new MapException(e);
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new MapAction<>(list, mapper, results, from, middle, threshold),
+                    new MapAction<>(list, mapper, results, middle, to, threshold));
+        }
+    }
+
+    /**
+     * 在ForkJoin任务中传递转换函数抛出的受检异常
+     */
+    private static final class MapException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        MapException(final Exception cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * 按名称前缀及序号命名线程的线程工厂
+     */
+    public static final class NamedThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+        private final String name;
+        private final boolean isDaemon;
+        private final int priority;
+
+        public NamedThreadFactory(final String name, final boolean isDaemon, final int priority) {
+            this.name = name;
+            this.isDaemon = isDaemon;
+            this.priority = priority;
+        }
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            Thread thread = new Thread(r, name + "-" + threadNumber.getAndIncrement());
+            thread.setDaemon(isDaemon);
+            thread.setPriority(priority);
+            return thread;
+        }
+    }
+
+    /**
+     * 取出优先级队列及运行统计包装前的任务
+     */
+    private static Runnable unwrap(final Runnable runnable) {
+        Runnable command = runnable instanceof PriorityTask ? ((PriorityTask) runnable).command : runnable;
+        return ThreadPoolMetrics.unwrap(command);
+    }
+
+    /**
+     * 支持运行统计及优先级队列的线程池
+     */
+    private static final class TaskThreadPoolExecutor extends ThreadPoolExecutor {
+        private final ThreadPoolMetrics metrics;
+        /**
+         * 优先级老化时间，小于0时不使用优先级队列
+         */
+        private final long priorityAgingNanos;
+        private final AtomicLong sequence = new AtomicLong();
+
+        TaskThreadPoolExecutor(final int corePoolSize, final int maximumPoolSize, final long keepAliveTime, final TimeUnit unit,
+                               final BlockingQueue<Runnable> workQueue, final ThreadFactory threadFactory,
+                               final RejectedExecutionHandler handler, final ThreadPoolMetrics metrics, final long priorityAgingNanos) {
+            super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, handler);
+            this.metrics = metrics;
+            this.priorityAgingNanos = priorityAgingNanos;
+            if (metrics != null) {
+                metrics.attach(this);
+            }
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            execute(command, PRIORITY_NORMAL);
+        }
+
+        void execute(final Runnable command, final int priority) {
+            if (command instanceof PriorityTask) {
+                // 拒绝策略重新提交的任务已包装过
+                super.execute(command);
+                return;
+            }
+            Runnable task = metrics == null ? command : metrics.wrap(command);
+            boolean isSampled = task != command;
+            if (priorityAgingNanos >= 0) {
+                task = new PriorityTask(task, priority, priorityAgingNanos, sequence.getAndIncrement());
+            }
+            super.execute(task);
+            if (isSampled) {
+                metrics.recordQueueSize(getQueue().size());
+            }
+        }
+
+        @Override
+        protected void afterExecute(final Runnable r, final Throwable t) {
+            super.afterExecute(r, t);
+            if (metrics != null) {
+                metrics.afterExecute(r instanceof PriorityTask ? ((PriorityTask) r).command : r, t);
+            }
+        }
+    }
+
+    /**
+     * 优先级队列中的任务
+     * <p>排序值为提交时间减去优先级乘以老化时间，排序值在入队时确定，保证优先级队列的堆结构有效；排序值相同时按提交序号先进先出。</p>
+     */
+    private static final class PriorityTask implements Runnable, Comparable<PriorityTask> {
+        private final Runnable command;
+        private final long order;
+        private final long sequence;
+
+        PriorityTask(final Runnable command, final int priority, final long agingNanos, final long sequence) {
+            this.command = command;
+            this.order = System.nanoTime() - priority * agingNanos;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            command.run();
+        }
+
+        @Override
+        public int compareTo(final PriorityTask another) {
+            long diff = order - another.order;
+            if (diff != 0) {
+                return diff < 0 ? -1 : 1;
+            }
+            return sequence < another.sequence ? -1 : (sequence == another.sequence ? 0 : 1);
+        }
+    }
+
+    /**
+     * 记录拒绝次数后交给实际的拒绝策略处理
+     */
+    private static final class CountingRejectedExecutionHandler implements RejectedExecutionHandler {
+        private final RejectedExecutionHandler handler;
+        private final ThreadPoolMetrics metrics;
+
+        CountingRejectedExecutionHandler(final RejectedExecutionHandler handler, final ThreadPoolMetrics metrics) {
+            this.handler = handler;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void rejectedExecution(final Runnable r, final ThreadPoolExecutor executor) {
+            metrics.recordRejected();
+            handler.rejectedExecution(r, executor);
+        }
+    }
+
+    /**
+     * 丢弃队列中最早的任务后重新提交的拒绝策略
+     * <p>丢弃的任务为按键串行执行的任务队列时移除该队列，否则该键后续提交的任务将一直等待。</p>
+     */
+    private static final class DiscardOldestRejectedExecutionHandler implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(final Runnable r, final ThreadPoolExecutor executor) {
+            if (!executor.isShutdown()) {
+                Runnable oldest = executor.getQueue().poll();
+                if (oldest != null) {
+                    KeyedSerialExecutor.drainTo(unwrap(oldest), new ArrayList<Runnable>());
+                }
+                executor.execute(r);
+            }
+        }
+    }
+
+    /**
+     * 阻塞提交线程直到队列有空位的拒绝策略
+     */
+    private static final class BlockRejectedExecutionHandler implements RejectedExecutionHandler {
+        private final long timeout;
+        private final TimeUnit unit;
+
+        BlockRejectedExecutionHandler(final long timeout, final TimeUnit unit) {
+            this.timeout = timeout;
+            this.unit = unit;
+        }
+
+        @Override
+        public void rejectedExecution(final Runnable r, final ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Executor has been shut down.");
+            }
+            try {
+                if (!executor.getQueue().offer(r, timeout, unit)) {
+                    throw new RejectedExecutionException("Timed out waiting for a free slot in the queue.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for a free slot in the queue.", e);
+            }
+        }
+    }
 }
@@ -0,0 +1,108 @@
+package com.handy.base.utils.bean;
+
+import android.os.Build;
+
+/**
+ * 数据表索引声明，支持单列、复合、唯一及部分索引
+ * <p>部分索引（{@link #setWhere(String)}）需要SQLite 3.8.0，即Android 5.0（API 21）及以上，
+ * 低版本系统上 {@link #isSupported()} 返回false，建表时跳过该索引。</p>
+ */
+public class SQLIndex {
+    private String indexName;
+    private String[] columns;
+    private boolean isUnique = false;
+    private String where;
+
+    /**
+     * @param indexName 索引名称，在数据库中必须唯一
+     * @param columns   索引列，多列时为复合索引，列名后可带排序如：createTime DESC
+     */
+    public SQLIndex(String indexName, String... columns) {
+        this.indexName = indexName;
+        this.columns = columns;
+    }
+
+    /**
+     * 获取索引创建语句
+     *
+     * @param tableName 索引所属的表名
+     * @return CREATE [UNIQUE] INDEX IF NOT EXISTS indexName ON tableName (columns) [WHERE where]
+     * @throws UnsupportedOperationException 部分索引在API 21以下的系统上不支持
+     */
+    public String getCreateSQL(String tableName) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Partial index " + indexName + " requires API 21 (SQLite 3.8.0)");
+        }
+        StringBuilder sql = new StringBuilder("CREATE ");
+        if (isUnique) {
+            sql.append("UNIQUE ");
+        }
+        sql.append("INDEX IF NOT EXISTS ").append(indexName).append(" ON ").append(tableName).append(" (");
+        for (int i = 0; i < columns.length; i++) {
+            sql.append(i == 0 ? "" : ", ").append(columns[i]);
+        }
+        sql.append(")");
+        if (isPartial()) {
+            sql.append(" WHERE ").append(where);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * 是否为部分索引
+     */
+    public boolean isPartial() {
+        return where != null && where.length() > 0;
+    }
+
+    /**
+     * 当前系统的SQLite是否支持该索引，部分索引需要API 21及以上
+     * <p>低版本不能去掉WHERE条件后创建普通索引，否则唯一部分索引会对全部记录生效而导致插入失败。</p>
+     */
+    public boolean isSupported() {
+        return !isPartial() || Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public SQLIndex setIndexName(String indexName) {
+        this.indexName = indexName;
+        return this;
+    }
+
+    public String[] getColumns() {
+        return columns;
+    }
+
+    public SQLIndex setColumns(String... columns) {
+        this.columns = columns;
+        return this;
+    }
+
+    public boolean isUnique() {
+        return isUnique;
+    }
+
+    /**
+     * 是否为唯一索引
+     */
+    public SQLIndex setUnique(boolean unique) {
+        isUnique = unique;
+        return this;
+    }
+
+    public String getWhere() {
+        return where;
+    }
+
+    /**
+     * 部分索引条件，只为满足条件的记录建立索引，如：deleted = 0
+     * <p>需要API 21及以上，低版本系统上该索引不会被创建。</p>
+     */
+    public SQLIndex setWhere(String where) {
+        this.where = where;
+        return this;
+    }
+}
@@ -1,5 +1,12 @@
 package com.handy.base.utils.bean;
 
+import android.os.Build;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
 /**
  * Created by LiuJie on 2017/1/12.
  */
@@ -7,6 +14,26 @@ package com.handy.base.utils.bean;
 public class SQLTable {
     private String tableName;
     private String createSQL;
+    /**
+     * 数据库版本号与升级到该版本时需执行的迁移语句
+     */
+    private TreeMap<Integer, List<String>> migrations = new TreeMap<>();
+    /**
+     * 数据表索引声明，在建表及数据库升级时自动创建
+     */
+    private List<SQLIndex> indexes = new ArrayList<>();
+    /**
+     * 全文检索列，不为空时创建FTS4影子表并通过触发器与数据表保持同步
+     */
+    private String[] ftsColumns;
+    /**
+     * 全文检索分词器，如：unicode61（Android 5.0及以上）、porter，默认：null-simple分词器
+     */
+    private String ftsTokenizer;
+    /**
+     * 拼音检索列，写入数据时自动生成对应的全拼列及首字母列
+     */
+    private String[] pinyinColumns;
 
     public SQLTable(String tableName, String createSQL) {
         this.tableName = tableName;
@@ -36,4 +63,227 @@ public class SQLTable {
     public void setCreateSQL(String createSQL) {
         this.createSQL = createSQL;
     }
+
+    /**
+     * 添加升级到指定数据库版本时执行的迁移语句，如数据回填：UPDATE db_user SET userAge = 0 WHERE userAge IS NULL
+     * <p>创建语句需始终描述最新的表结构，全新安装时直接执行创建语句，不执行迁移语句。</p>
+     * <p>声明了迁移语句的表在数据库升级时按版本号依次执行迁移，不再删除重建；未声明任何迁移语句的表仍按删除重建处理。</p>
+     *
+     * @param version 数据库版本号，从低于该版本的数据库升级时执行
+     * @param sqls    迁移语句，按添加顺序执行
+     */
+    public SQLTable addMigration(int version, String... sqls) {
+        List<String> steps = migrations.get(version);
+        if (steps == null) {
+            steps = new ArrayList<>();
+            migrations.put(version, steps);
+        }
+        Collections.addAll(steps, sqls);
+        return this;
+    }
+
+    /**
+     * 添加升级到指定数据库版本时新增列的迁移步骤
+     *
+     * @param version          数据库版本号
+     * @param columnDefinition 列定义，如：userAge INTEGER DEFAULT 0
+     */
+    public SQLTable addColumn(int version, String columnDefinition) {
+        return addMigration(version, "ALTER TABLE " + tableName + " ADD COLUMN " + columnDefinition);
+    }
+
+    /**
+     * 添加升级到指定数据库版本时创建索引的迁移步骤
+     *
+     * @param version   数据库版本号
+     * @param indexName 索引名称
+     * @param columns   索引列
+     */
+    public SQLTable addIndex(int version, String indexName, String... columns) {
+        StringBuilder sql = new StringBuilder("CREATE INDEX IF NOT EXISTS ").append(indexName)
+                .append(" ON ").append(tableName).append(" (");
+        for (int i = 0; i < columns.length; i++) {
+            sql.append(i == 0 ? "" : ", ").append(columns[i]);
+        }
+        return addMigration(version, sql.append(")").toString());
+    }
+
+    /**
+     * 声明数据表索引，全新安装建表及数据库升级时自动创建，已存在的同名索引不会重复创建
+     * <p>为已有数据表新增索引时只需声明索引并提升数据库版本号。</p>
+     *
+     * @param sqlIndex 索引声明
+     */
+    public SQLTable addIndex(SQLIndex sqlIndex) {
+        indexes.add(sqlIndex);
+        return this;
+    }
+
+    public List<SQLIndex> getIndexes() {
+        return indexes;
+    }
+
+    /**
+     * 为数据表声明全文检索列
+     * <p>建表时会同时创建名为 {@link #getFtsTableName()} 的FTS4外部内容影子表及增删改触发器，影子表只保存索引，不重复保存数据。
+     * 数据表需以 INTEGER PRIMARY KEY 或默认 rowid 作为主键，外部内容影子表要求Android 4.1及以上，
+     * 低版本系统上 {@link #isFtsSupported()} 返回false，建表时跳过影子表，检索时改为LIKE匹配。</p>
+     *
+     * @param columns 全文检索列
+     */
+    public SQLTable setFullTextSearch(String... columns) {
+        this.ftsColumns = columns;
+        return this;
+    }
+
+    public String[] getFtsColumns() {
+        return ftsColumns;
+    }
+
+    /**
+     * 是否声明了全文检索列
+     */
+    public boolean hasFullTextSearch() {
+        return ftsColumns != null && ftsColumns.length > 0;
+    }
+
+    /**
+     * 当前系统是否支持声明的全文检索，FTS4外部内容表（content=）要求API 16（SQLite 3.7.11）
+     *
+     * @return 未声明全文检索列或系统版本满足要求时返回true
+     */
+    public boolean isFtsSupported() {
+        return !hasFullTextSearch() || Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN;
+    }
+
+    /**
+     * 设置全文检索分词器
+     *
+     * @param ftsTokenizer 分词器，如：unicode61、porter
+     */
+    public SQLTable setFtsTokenizer(String ftsTokenizer) {
+        this.ftsTokenizer = ftsTokenizer;
+        return this;
+    }
+
+    public String getFtsTokenizer() {
+        return ftsTokenizer;
+    }
+
+    /**
+     * 全文检索影子表表名
+     */
+    public String getFtsTableName() {
+        return tableName + "_fts";
+    }
+
+    /**
+     * 获取全文检索影子表及同步触发器的创建语句
+     *
+     * @return 创建语句，未声明全文检索列时返回空集合
+     */
+    public List<String> getFtsCreateSQLs() {
+        List<String> sqls = new ArrayList<>();
+        if (!hasFullTextSearch()) {
+            return sqls;
+        }
+        if (!isFtsSupported()) {
+            throw new UnsupportedOperationException("Full-text search table " + getFtsTableName() + " requires API 16 (SQLite 3.7.11)");
+        }
+        String ftsTableName = getFtsTableName();
+        StringBuilder columns = new StringBuilder();
+        StringBuilder newValues = new StringBuilder();
+        for (String column : ftsColumns) {
+            columns.append(", ").append(column);
+            newValues.append(", new.").append(column);
+        }
+        StringBuilder createSQL = new StringBuilder("CREATE VIRTUAL TABLE IF NOT EXISTS ").append(ftsTableName)
+                .append(" USING fts4(content=\"").append(tableName).append("\"").append(columns);
+        if (ftsTokenizer != null && ftsTokenizer.length() > 0) {
+            createSQL.append(", tokenize=").append(ftsTokenizer);
+        }
+        sqls.add(createSQL.append(")").toString());
+        String deleteOld = " BEGIN DELETE FROM " + ftsTableName + " WHERE docid = old.rowid; END";
+        String insertNew = " BEGIN INSERT INTO " + ftsTableName + " (docid" + columns + ") VALUES (new.rowid" + newValues + "); END";
+        sqls.add("CREATE TRIGGER IF NOT EXISTS " + ftsTableName + "_bu BEFORE UPDATE ON " + tableName + deleteOld);
+        sqls.add("CREATE TRIGGER IF NOT EXISTS " + ftsTableName + "_bd BEFORE DELETE ON " + tableName + deleteOld);
+        sqls.add("CREATE TRIGGER IF NOT EXISTS " + ftsTableName + "_au AFTER UPDATE ON " + tableName + insertNew);
+        sqls.add("CREATE TRIGGER IF NOT EXISTS " + ftsTableName + "_ai AFTER INSERT ON " + tableName + insertNew);
+        return sqls;
+    }
+
+    /**
+     * 为数据表声明拼音检索列，适用于姓名等中文字段的全拼及首字母前缀检索，如：zs、zhangs → 张三
+     * <p>建表或升级时自动为每个检索列添加带索引的 {@link #getPinyinColumn(String)} 全拼列及 {@link #getInitialsColumn(String)} 首字母列，
+     * 升级时为已有数据补全拼音；之后通过SQLiteUtils插入、更新数据时自动生成拼音，姓氏按多音字姓氏读音转换。</p>
+     *
+     * @param columns 拼音检索列
+     */
+    public SQLTable setPinyinSearch(String... columns) {
+        this.pinyinColumns = columns;
+        return this;
+    }
+
+    public String[] getPinyinColumns() {
+        return pinyinColumns;
+    }
+
+    /**
+     * 是否声明了拼音检索列
+     */
+    public boolean hasPinyinSearch() {
+        return pinyinColumns != null && pinyinColumns.length > 0;
+    }
+
+    /**
+     * 拼音检索列对应的全拼列列名
+     */
+    public static String getPinyinColumn(String column) {
+        return column + "_pinyin";
+    }
+
+    /**
+     * 拼音检索列对应的首字母列列名
+     */
+    public static String getInitialsColumn(String column) {
+        return column + "_initials";
+    }
+
+    /**
+     * 是否声明了迁移语句
+     */
+    public boolean hasMigrations() {
+        return !migrations.isEmpty();
+    }
+
+    /**
+     * 获取升级到指定数据库版本时需执行的迁移语句
+     *
+     * @param version 数据库版本号
+     * @return 迁移语句，未声明时返回空集合
+     */
+    public List<String> getMigrations(int version) {
+        List<String> steps = migrations.get(version);
+        return steps == null ? Collections.<String>emptyList() : steps;
+    }
+
+    /**
+     * 以表名判断是否为同一数据表，用于添加或更新数据库中的表
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SQLTable sqlTable = (SQLTable) o;
+        return tableName != null ? tableName.equals(sqlTable.tableName) : sqlTable.tableName == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return tableName != null ? tableName.hashCode() : 0;
+    }
 }
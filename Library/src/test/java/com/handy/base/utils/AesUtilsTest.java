@@ -0,0 +1,54 @@
+package com.handy.base.utils;
+
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * AesUtils加解密测试
+ */
+public class AesUtilsTest {
+    private static final String KEY = "0123456789ABCDEF";
+
+    @Test
+    public void encryptThenDecryptReturnsPlainText() {
+        for (String src : new String[]{"", "a", "HandyBase", "中文明文，包含多字节字符", "exactly sixteen!"}) {
+            assertEquals(src, AesUtils.decrypt(KEY, AesUtils.encrypt(KEY, src)));
+        }
+    }
+
+    @Test
+    public void samePlainTextEncryptsDifferently() {
+        String first = AesUtils.encrypt(KEY, "HandyBase");
+        String second = AesUtils.encrypt(KEY, "HandyBase");
+        assertNotEquals(first, second);
+        assertEquals(AesUtils.decrypt(KEY, first), AesUtils.decrypt(KEY, second));
+    }
+
+    @Test
+    public void supportsAllKeyLengths() {
+        for (String key : new String[]{KEY, KEY + "01234567", KEY + KEY}) {
+            assertEquals("HandyBase", AesUtils.decrypt(key, AesUtils.encrypt(key, "HandyBase")));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void legacyDecryptReadsFixedIvCipherText() throws Exception {
+        // 按旧版本的方式使用默认密钥及固定向量加密
+        byte[] iv = {1, 2, 3, 4, 5, 6, 7, 8, 9, 'A', 'B', 'C', 'D', 'E', 'F', 0};
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec("HANDY_SECRET_KEY".getBytes(Charset.forName("UTF-8")), "AES"), new IvParameterSpec(iv));
+        String legacy = Base64Utils.encode(cipher.doFinal("旧版本数据".getBytes(Charset.forName("UTF-8"))));
+
+        assertEquals("旧版本数据", AesUtils.decrypt(legacy));
+        assertEquals(legacy, AesUtils.encrypt("旧版本数据"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.handy.base.utils;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Base64Utils与java.util.Base64的编解码结果对比测试
+ */
+public class Base64UtilsTest {
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+    private static final int MAX_LENGTH = 300;
+
+    private final Random random = new Random(20180708L);
+
+    @Test
+    public void encodeMatchesJdk() {
+        for (int length = 0; length <= MAX_LENGTH; length++) {
+            byte[] data = randomBytes(length);
+            assertEquals(Base64.getEncoder().encodeToString(data), Base64Utils.encode(data));
+            assertEquals(Base64.getEncoder().withoutPadding().encodeToString(data), Base64Utils.encode(data, Base64Utils.NO_PADDING));
+            assertEquals(Base64.getUrlEncoder().encodeToString(data), Base64Utils.encode(data, Base64Utils.URL_SAFE));
+            assertEquals(Base64.getUrlEncoder().withoutPadding().encodeToString(data),
+                    Base64Utils.encode(data, Base64Utils.URL_SAFE | Base64Utils.NO_PADDING));
+            assertArrayEquals(Base64.getEncoder().encode(data), Base64Utils.encodeToBytes(data, Base64Utils.DEFAULT));
+        }
+    }
+
+    @Test
+    public void decodeMatchesJdk() {
+        for (int length = 0; length <= MAX_LENGTH; length++) {
+            byte[] data = randomBytes(length);
+            assertArrayEquals(data, Base64Utils.decode(Base64.getEncoder().encodeToString(data)));
+            assertArrayEquals(data, Base64Utils.decode(Base64.getEncoder().withoutPadding().encodeToString(data)));
+            assertArrayEquals(data, Base64Utils.decode(Base64.getUrlEncoder().encodeToString(data)));
+            assertArrayEquals(data, Base64Utils.decode(Base64.getUrlEncoder().withoutPadding().encode(data)));
+            // MIME编码每76个字符换行，解码时忽略换行符
+            assertArrayEquals(data, Base64Utils.decode(Base64.getMimeEncoder().encodeToString(data)));
+        }
+    }
+
+    @Test
+    public void decodeToByteBuffer() {
+        for (int length = 0; length <= MAX_LENGTH; length++) {
+            byte[] data = randomBytes(length);
+            String encoded = Base64.getEncoder().encodeToString(data);
+            for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(length + 1), ByteBuffer.allocateDirect(length + 1)}) {
+                buffer.put((byte) 0x7f);
+                assertEquals(length, Base64Utils.decode(encoded, buffer));
+                assertEquals(length + 1, buffer.position());
+                buffer.flip();
+                buffer.get();
+                byte[] decoded = new byte[length];
+                buffer.get(decoded);
+                assertArrayEquals(data, decoded);
+            }
+        }
+    }
+
+    @Test
+    public void streamsMatchJdk() throws Exception {
+        byte[] data = randomBytes(100000 + 7);
+        for (int flags : new int[]{Base64Utils.DEFAULT, Base64Utils.NO_PADDING, Base64Utils.URL_SAFE}) {
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            OutputStream encoder = Base64Utils.wrapEncoder(encoded, flags);
+            // 按不同大小分段写入，覆盖跨缓冲区的情况
+            for (int offset = 0, step = 1; offset < data.length; offset += step, step = step * 2 % 5000 + 1) {
+                encoder.write(data, offset, Math.min(step, data.length - offset));
+            }
+            encoder.close();
+            assertEquals(Base64Utils.encode(data, flags), new String(encoded.toByteArray(), ASCII));
+
+            InputStream decoder = Base64Utils.wrapDecoder(new ByteArrayInputStream(encoded.toByteArray()));
+            ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+            byte[] buffer = new byte[777];
+            int count;
+            while ((count = decoder.read(buffer)) != -1) {
+                decoded.write(buffer, 0, count);
+            }
+            decoder.close();
+            assertArrayEquals(data, decoded.toByteArray());
+        }
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] data = new byte[length];
+        random.nextBytes(data);
+        return data;
+    }
+}
@@ -0,0 +1,179 @@
+package com.handy.base.utils.androidutilcode;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * HashedWheelScheduler测试
+ */
+public class HashedWheelSchedulerTest {
+    private static final long TICK_MILLIS = 5;
+
+    private HashedWheelScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        // 槽位数较少，使较长的延迟需要时间轮转动多圈
+        scheduler = new HashedWheelScheduler(Executors.newFixedThreadPool(2), TICK_MILLIS, TimeUnit.MILLISECONDS, 8,
+                new ThreadPoolUtils.NamedThreadFactory("wheel-test", true, Thread.NORM_PRIORITY));
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        scheduler.shutdownNow();
+        assertTrue(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void firesNoEarlierThanDelay() throws Exception {
+        for (long delayMillis : new long[]{0, 1, 12, 37, 120}) {
+            final long startNanos = System.nanoTime();
+            ScheduledFuture<Long> future = scheduler.schedule(new Callable<Long>() {
+                @Override
+                public Long call() {
+                    return System.nanoTime() - startNanos;
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(future.get(5, TimeUnit.SECONDS));
+            assertTrue("delay " + delayMillis + "ms fired after " + elapsedMillis + "ms", elapsedMillis >= delayMillis);
+        }
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void firesInDeadlineOrderAcrossRounds() throws Exception {
+        final List<Integer> fired = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch latch = new CountDownLatch(10);
+        // 倒序调度，间隔大于一个时间刻度，跨越多圈时间轮
+        for (int i = 9; i >= 0; i--) {
+            final int index = i;
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    fired.add(index);
+                    latch.countDown();
+                }
+            }, (i + 1) * TICK_MILLIS * 3, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), fired.get(i));
+        }
+    }
+
+    @Test
+    public void cancelledTimerDoesNotRun() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        ScheduledFuture<?> future = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+        assertTrue(future.cancel(false));
+        Thread.sleep(100);
+        assertEquals(0, runs.get());
+        assertTrue(future.isCancelled());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void fixedRateRepeatsUntilCancelled() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(5);
+        final AtomicInteger runs = new AtomicInteger();
+        ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+                latch.countDown();
+            }
+        }, 0, 10, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        future.cancel(false);
+        Thread.sleep(50);
+        int runsAfterCancel = runs.get();
+        Thread.sleep(50);
+        assertEquals(runsAfterCancel, runs.get());
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void shutdownCancelsPendingAndRejectsNewTimers() throws Exception {
+        ScheduledFuture<?> future = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, 1, TimeUnit.HOURS);
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(future.isCancelled());
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                }
+            }, 1, TimeUnit.MILLISECONDS);
+            fail("expected RejectedExecutionException");
+        } catch (RejectedExecutionException expected) {
+            assertTrue(scheduler.isShutdown());
+        }
+    }
+
+    @Test
+    public void periodicTimerIsCancelledWhenShutdownDuringRun() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+                scheduler.shutdown();
+            }
+        }, 0, 10, TimeUnit.MILLISECONDS);
+        assertTrue(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+        // 执行期间关闭的周期任务不再重新调度，应被取消而不是永远处于未完成状态
+        assertTrue(future.isDone());
+        assertTrue(future.isCancelled());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void cancelledTimersAreRemovedFromWheel() throws Exception {
+        int count = 10000;
+        Runnable noop = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        List<ScheduledFuture<?>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            futures.add(scheduler.schedule(noop, 10 + i % 1000, TimeUnit.SECONDS));
+        }
+        for (ScheduledFuture<?> future : futures) {
+            assertTrue(future.cancel(false));
+        }
+        // 已取消的任务在后续时间刻度中移出时间轮
+        long deadline = System.currentTimeMillis() + 5000;
+        while (scheduler.getPendingCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(TICK_MILLIS);
+        }
+        assertEquals(0, scheduler.getPendingCount());
+        assertFalse(scheduler.isShutdown());
+    }
+}
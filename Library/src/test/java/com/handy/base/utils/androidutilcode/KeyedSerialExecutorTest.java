@@ -0,0 +1,251 @@
+package com.handy.base.utils.androidutilcode;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * KeyedSerialExecutor测试
+ */
+public class KeyedSerialExecutorTest {
+    private static final int THREAD_COUNT = 16;
+    private static final int KEY_COUNT = 64;
+    private static final int TASKS_PER_PRODUCER = 2000;
+
+    @Test
+    public void keepsPerKeyOrderUnder16Threads() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            final KeyedSerialExecutor keyed = new KeyedSerialExecutor(pool);
+            // 每个键、每个生产者线程最近执行的任务序号
+            final AtomicIntegerArray lastSequences = new AtomicIntegerArray(KEY_COUNT * THREAD_COUNT);
+            final AtomicIntegerArray runningCounts = new AtomicIntegerArray(KEY_COUNT);
+            final AtomicReference<String> failure = new AtomicReference<>();
+            final CountDownLatch executed = new CountDownLatch(THREAD_COUNT * TASKS_PER_PRODUCER);
+            final CountDownLatch start = new CountDownLatch(1);
+            for (int p = 0; p < THREAD_COUNT; p++) {
+                final int producer = p;
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        for (int i = 1; i <= TASKS_PER_PRODUCER; i++) {
+                            final int key = (i * 7 + producer) % KEY_COUNT;
+                            final int sequence = i;
+                            keyed.execute(key, new Runnable() {
+                                @Override
+                                public void run() {
+                                    if (runningCounts.incrementAndGet(key) != 1) {
+                                        failure.compareAndSet(null, "key " + key + " ran concurrently");
+                                    }
+                                    int slot = key * THREAD_COUNT + producer;
+                                    if (lastSequences.getAndSet(slot, sequence) >= sequence) {
+                                        failure.compareAndSet(null, "key " + key + " ran out of order");
+                                    }
+                                    runningCounts.decrementAndGet(key);
+                                    executed.countDown();
+                                }
+                            });
+                        }
+                    }
+                }).start();
+            }
+            start.countDown();
+            assertTrue(executed.await(30, TimeUnit.SECONDS));
+            assertNull(failure.get(), failure.get());
+            // 最后一个任务执行完毕后队列才被移除
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(0, keyed.getLaneCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void errorDoesNotBlockKey() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r);
+                thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+                    @Override
+                    public void uncaughtException(Thread t, Throwable e) {
+                        // 预期的Error，不输出
+                    }
+                });
+                return thread;
+            }
+        });
+        try {
+            KeyedSerialExecutor keyed = new KeyedSerialExecutor(pool);
+            keyed.execute("a", new Runnable() {
+                @Override
+                public void run() {
+                    throw new AssertionError("expected");
+                }
+            });
+            Future<?> next = keyed.submit("a", new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            next.get(5, TimeUnit.SECONDS);
+            Future<?> later = keyed.submit("a", new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            later.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void callerRunsReschedulesWithoutRecursion() throws Exception {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<Runnable>(), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            KeyedSerialExecutor keyed = new KeyedSerialExecutor(pool);
+            final CountDownLatch release = new CountDownLatch(1);
+            keyed.execute("a", new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            final AtomicInteger minDepth = new AtomicInteger(Integer.MAX_VALUE);
+            final AtomicInteger maxDepth = new AtomicInteger();
+            Future<?> last = null;
+            for (int i = 0; i < 1000; i++) {
+                last = keyed.submit("a", new Runnable() {
+                    @Override
+                    public void run() {
+                        int depth = Thread.currentThread().getStackTrace().length;
+                        minDepth.set(Math.min(minDepth.get(), depth));
+                        maxDepth.set(Math.max(maxDepth.get(), depth));
+                    }
+                });
+            }
+            // 唯一的线程被占用，队列每执行一批任务后重新提交时均由CallerRunsPolicy在当前线程中执行
+            release.countDown();
+            last.get(5, TimeUnit.SECONDS);
+            assertTrue(minDepth.get() + " ~ " + maxDepth.get(), maxDepth.get() - minDepth.get() < 10);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void discardOldestPolicyReleasesDroppedKey() throws Exception {
+        ThreadPoolUtils pool = new ThreadPoolUtils.Builder(ThreadPoolUtils.FixedThread, 1)
+                .setQueue(ThreadPoolUtils.ArrayQueue, 1)
+                .setRejectPolicy(ThreadPoolUtils.DiscardOldestPolicy)
+                .build();
+        try {
+            KeyedSerialExecutor keyed = pool.getKeyedSerialExecutor();
+            final CountDownLatch release = new CountDownLatch(1);
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            final AtomicBoolean isDroppedRun = new AtomicBoolean(false);
+            keyed.execute("a", new Runnable() {
+                @Override
+                public void run() {
+                    isDroppedRun.set(true);
+                }
+            });
+            // 队列已满，丢弃最早进入队列的"a"队列
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            assertEquals(0, keyed.getLaneCount());
+            release.countDown();
+            keyed.submit("a", new Runnable() {
+                @Override
+                public void run() {
+                }
+            }).get(5, TimeUnit.SECONDS);
+            assertFalse(isDroppedRun.get());
+        } finally {
+            pool.shutDown();
+        }
+    }
+
+    @Test
+    public void shutDownNowReturnsQueuedKeyedTasks() throws Exception {
+        ThreadPoolUtils pool = new ThreadPoolUtils(ThreadPoolUtils.FixedThread, 1);
+        KeyedSerialExecutor keyed = pool.getKeyedSerialExecutor();
+        final CountDownLatch release = new CountDownLatch(1);
+        pool.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        List<Runnable> submitted = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                }
+            };
+            submitted.add(task);
+            keyed.execute("a", task);
+        }
+        assertEquals(submitted, pool.shutDownNow());
+        assertEquals(0, keyed.getLaneCount());
+        try {
+            keyed.execute("a", new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            fail("expected RejectedExecutionException");
+        } catch (RejectedExecutionException expected) {
+            assertEquals(0, keyed.getLaneCount());
+        }
+    }
+}
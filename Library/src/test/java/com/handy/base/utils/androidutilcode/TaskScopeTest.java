@@ -0,0 +1,223 @@
+package com.handy.base.utils.androidutilcode;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * TaskScope测试
+ */
+public class TaskScopeTest {
+    private ThreadPoolUtils pool;
+
+    @Before
+    public void setUp() {
+        pool = new ThreadPoolUtils(ThreadPoolUtils.CachedThread, 0);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutDownNow();
+    }
+
+    @Test
+    public void failureCancelsSiblings() throws Exception {
+        TaskScope scope = pool.openScope(5, TimeUnit.SECONDS);
+        final CountDownLatch siblingStarted = new CountDownLatch(1);
+        final CountDownLatch siblingInterrupted = new CountDownLatch(1);
+        try {
+            Future<Void> sibling = scope.fork(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    siblingStarted.countDown();
+                    try {
+                        Thread.sleep(10000);
+                    } catch (InterruptedException e) {
+                        siblingInterrupted.countDown();
+                        throw e;
+                    }
+                    return null;
+                }
+            });
+            scope.fork(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    siblingStarted.await();
+                    throw new IOException("failed");
+                }
+            });
+            try {
+                scope.join();
+                fail("expected ExecutionException");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+            assertTrue(sibling.isCancelled());
+            assertTrue(siblingInterrupted.await(5, TimeUnit.SECONDS));
+            assertTrue(scope.isCancelled());
+        } finally {
+            scope.close();
+        }
+    }
+
+    @Test
+    public void childDeadlineIsCappedByParent() throws Exception {
+        TaskScope parent = pool.openScope(100, TimeUnit.MILLISECONDS);
+        try {
+            TaskScope child = parent.openChild(10, TimeUnit.SECONDS, TaskScope.UNBOUNDED);
+            assertTrue(child.getRemaining(TimeUnit.MILLISECONDS) <= 100);
+            Future<Void> slow = child.fork(sleep(10000));
+            long startNanos = System.nanoTime();
+            try {
+                child.join();
+                fail("expected TimeoutException");
+            } catch (TimeoutException expected) {
+                assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) < 5000);
+            }
+            assertTrue(slow.isCancelled());
+            assertTrue(child.isCancelled());
+            assertFalse(parent.isCancelled());
+        } finally {
+            parent.close();
+        }
+    }
+
+    @Test
+    public void parentDeadlineCancelsChildren() throws Exception {
+        TaskScope parent = pool.openScope(100, TimeUnit.MILLISECONDS);
+        TaskScope child = parent.openChild(-1, TimeUnit.SECONDS, TaskScope.UNBOUNDED);
+        TaskScope grandchild = child.openChild(-1, TimeUnit.SECONDS, TaskScope.UNBOUNDED);
+        try {
+            Future<Void> parentTask = parent.fork(sleep(10000));
+            Future<Void> grandchildTask = grandchild.fork(sleep(10000));
+            try {
+                parent.join();
+                fail("expected TimeoutException");
+            } catch (TimeoutException expected) {
+                assertTrue(parentTask.isCancelled());
+            }
+            assertTrue(child.isCancelled());
+            assertTrue(grandchild.isCancelled());
+            assertTrue(grandchildTask.isCancelled());
+            try {
+                grandchild.fork(sleep(0)).get();
+                fail("expected CancellationException");
+            } catch (CancellationException expected) {
+                assertTrue(grandchild.isCancelled());
+            }
+        } finally {
+            parent.close();
+        }
+    }
+
+    @Test
+    public void cancelledRunningTaskKeepsSlotUntilItExits() throws Exception {
+        TaskScope scope = pool.openScope(5, TimeUnit.SECONDS, 1);
+        final AtomicInteger runningCount = new AtomicInteger();
+        final AtomicInteger maxRunningCount = new AtomicInteger();
+        final AtomicBoolean isStopped = new AtomicBoolean(false);
+        final CountDownLatch firstStarted = new CountDownLatch(1);
+        try {
+            Future<Void> first = scope.fork(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    enter(runningCount, maxRunningCount);
+                    firstStarted.countDown();
+                    // 忽略中断，模拟取消后仍在执行的任务
+                    while (!isStopped.get()) {
+                        Thread.yield();
+                    }
+                    runningCount.decrementAndGet();
+                    return null;
+                }
+            });
+            Future<Void> second = scope.fork(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    enter(runningCount, maxRunningCount);
+                    runningCount.decrementAndGet();
+                    return null;
+                }
+            });
+            assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+            assertTrue(first.cancel(true));
+            Thread.sleep(100);
+            assertFalse(second.isDone());
+            isStopped.set(true);
+            second.get(5, TimeUnit.SECONDS);
+            assertEquals(1, maxRunningCount.get());
+        } finally {
+            isStopped.set(true);
+            scope.close();
+        }
+    }
+
+    @Test
+    public void invokeAnyReturnsFirstSuccessAndCancelsOthers() throws Exception {
+        TaskScope scope = pool.openScope(5, TimeUnit.SECONDS);
+        try {
+            String result = scope.invokeAny(Arrays.<Callable<String>>asList(
+                    new Callable<String>() {
+                        @Override
+                        public String call() throws Exception {
+                            throw new IOException("failed");
+                        }
+                    },
+                    new Callable<String>() {
+                        @Override
+                        public String call() throws Exception {
+                            Thread.sleep(20);
+                            return "fast";
+                        }
+                    },
+                    new Callable<String>() {
+                        @Override
+                        public String call() throws Exception {
+                            Thread.sleep(10000);
+                            return "slow";
+                        }
+                    }));
+            assertEquals("fast", result);
+            assertFalse(scope.isCancelled());
+        } finally {
+            scope.close();
+        }
+    }
+
+    private static Callable<Void> sleep(final long millis) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                Thread.sleep(millis);
+                return null;
+            }
+        };
+    }
+
+    private static void enter(final AtomicInteger runningCount, final AtomicInteger maxRunningCount) {
+        int count = runningCount.incrementAndGet();
+        while (true) {
+            int max = maxRunningCount.get();
+            if (count <= max || maxRunningCount.compareAndSet(max, count)) {
+                return;
+            }
+        }
+    }
+}
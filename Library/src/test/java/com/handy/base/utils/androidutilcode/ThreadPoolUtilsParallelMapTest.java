@@ -0,0 +1,116 @@
+package com.handy.base.utils.androidutilcode;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import io.reactivex.functions.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * ThreadPoolUtils#parallelMap测试
+ * <p>本地单元测试中Build.VERSION.SDK_INT为0，ForkJoin路径通过ForkJoinSupport直接测试。</p>
+ */
+public class ThreadPoolUtilsParallelMapTest {
+    private static final int SIZE = 10000;
+
+    @Test
+    public void forkJoinKeepsOrderAndSplitsAcrossThreads() throws Exception {
+        ExecutorService pool = ThreadPoolUtils.ForkJoinSupport.newPool(4, "test-fork-join");
+        try {
+            final Set<String> threadNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            List<Integer> results = ThreadPoolUtils.ForkJoinSupport.parallelMap(pool, numbers(), new Function<Integer, Integer>() {
+                @Override
+                public Integer apply(Integer value) throws Exception {
+                    threadNames.add(Thread.currentThread().getName());
+                    busyWork();
+                    return value * 2;
+                }
+            });
+            assertSquaredOrder(results);
+            for (String threadName : threadNames) {
+                assertTrue(threadName, threadName.startsWith("test-fork-join-") || threadName.equals(Thread.currentThread().getName()));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void forkJoinRethrowsMapperException() throws Exception {
+        ExecutorService pool = ThreadPoolUtils.ForkJoinSupport.newPool(4, null);
+        try {
+            ThreadPoolUtils.ForkJoinSupport.parallelMap(pool, numbers(), new Function<Integer, Integer>() {
+                @Override
+                public Integer apply(Integer value) throws Exception {
+                    if (value == SIZE / 2) {
+                        throw new IOException("failed at " + value);
+                    }
+                    return value;
+                }
+            });
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertEquals("failed at " + SIZE / 2, e.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void cachedPoolRunsInParallel() throws Exception {
+        ThreadPoolUtils pool = new ThreadPoolUtils(ThreadPoolUtils.CachedThread, 0);
+        try {
+            final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+            List<Integer> results = pool.parallelMap(numbers(), new Function<Integer, Integer>() {
+                @Override
+                public Integer apply(Integer value) throws Exception {
+                    threads.add(Thread.currentThread());
+                    busyWork();
+                    return value * 2;
+                }
+            });
+            assertSquaredOrder(results);
+            // 核心线程数为0的Cached线程池也应按CPU核心数分段并行执行
+            int processors = Runtime.getRuntime().availableProcessors();
+            assertTrue(threads.size() + " threads", processors == 1 || threads.size() > 1);
+            assertTrue(threads.size() + " threads", threads.size() <= processors);
+        } finally {
+            pool.shutDown();
+        }
+    }
+
+    private static List<Integer> numbers() {
+        List<Integer> numbers = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            numbers.add(i);
+        }
+        return numbers;
+    }
+
+    private static void assertSquaredOrder(List<Integer> results) {
+        assertEquals(SIZE, results.size());
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(Integer.valueOf(i * 2), results.get(i));
+        }
+    }
+
+    private static void busyWork() {
+        long value = 0;
+        for (int i = 0; i < 1000; i++) {
+            value += i * 31;
+        }
+        if (value < 0) {
+            throw new IllegalStateException();
+        }
+    }
+}